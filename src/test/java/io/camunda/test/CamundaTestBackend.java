@@ -0,0 +1,27 @@
+package io.camunda.test;
+
+import java.util.Locale;
+
+/** The backend that runs the engine of a {@link CamundaTestContext}. */
+public enum CamundaTestBackend {
+
+  /** Zeebe and the other components run in Docker containers. */
+  CONTAINERS,
+
+  /**
+   * The engine runs inside the JVM of the tests. It starts in less than a second, but provides only
+   * Zeebe, without Elasticsearch, Operate, Tasklist or connectors.
+   */
+  EMBEDDED;
+
+  /** The system property to select the backend, e.g. {@code -Dcamunda.test.backend=embedded}. */
+  public static final String BACKEND_PROPERTY = "camunda.test.backend";
+
+  public static CamundaTestBackend fromSystemProperty() {
+    final String backend = System.getProperty(BACKEND_PROPERTY);
+    if (backend == null || backend.isBlank()) {
+      return CONTAINERS;
+    }
+    return valueOf(backend.trim().toUpperCase(Locale.ROOT));
+  }
+}
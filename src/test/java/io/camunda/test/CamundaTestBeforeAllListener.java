@@ -3,34 +3,43 @@ package io.camunda.test;
 import static org.junit.platform.commons.util.ReflectionUtils.makeAccessible;
 
 import io.camunda.zeebe.client.ZeebeClient;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.platform.commons.util.ExceptionUtils;
 import org.junit.platform.commons.util.ReflectionUtils;
 
-public class CamundaTestBeforeAllListener implements BeforeAllCallback {
+public class CamundaTestBeforeAllListener
+    implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback {
 
   @Override
   public void beforeAll(ExtensionContext extensionContext) throws Exception {
+    // the environment is shared with other test classes, remove the data of their tests
+    lookupOrCreate(extensionContext).prepareForTest();
+
     Class<?> testClass = extensionContext.getRequiredTestClass();
     injectFields(extensionContext, null, testClass);
   }
 
-  private ExtensionContext.Store getStore(final ExtensionContext context) {
-    return context.getStore(ExtensionContext.Namespace.create(getClass(), context.getUniqueId()));
+  @Override
+  public void beforeEach(final ExtensionContext extensionContext) {
+    lookupOrCreate(extensionContext).getLogPipeline().startTest();
+  }
+
+  @Override
+  public void afterEach(final ExtensionContext extensionContext) {
+    // the logs are written only for failed tests
+    if (extensionContext.getExecutionException().isPresent()) {
+      lookupOrCreate(extensionContext)
+          .getLogPipeline()
+          .dump(CamundaTestListener.getLogsDirectory(extensionContext));
+    }
   }
 
   private CamundaTestContext lookupOrCreate(final ExtensionContext extensionContext) {
-    final var store = getStore(extensionContext);
-
-    return (CamundaTestContext)
-        store.getOrComputeIfAbsent(
-            "camunda-test-context",
-            (key) -> {
-              CamundaTestContext camundaTestContext = new CamundaTestContext();
-              camundaTestContext.start(false);
-              return camundaTestContext;
-            });
+    return CamundaTestEnvironmentRegistry.lookupOrCreate(
+        extensionContext, CamundaTestEnvironmentConfig.defaultConfig());
   }
 
   private void injectFields(
@@ -44,10 +53,7 @@ public class CamundaTestBeforeAllListener implements BeforeAllCallback {
               try {
                 final var camundaTestContext = lookupOrCreate(context);
 
-                final String zeebeGatewayAddress =
-                    camundaTestContext.getZeebeContainer().getExternalGatewayAddress();
-
-                final ZeebeClient zeebeClient = createZeebeClient(zeebeGatewayAddress);
+                final ZeebeClient zeebeClient = camundaTestContext.getZeebeClient();
 
                 makeAccessible(field).set(testInstance, zeebeClient);
 
@@ -55,9 +61,20 @@ public class CamundaTestBeforeAllListener implements BeforeAllCallback {
                 ExceptionUtils.throwAsUncheckedException(t);
               }
             });
-  }
 
-  private ZeebeClient createZeebeClient(final String gatewayAddress) {
-    return ZeebeClient.newClientBuilder().gatewayAddress(gatewayAddress).usePlaintext().build();
+    ReflectionUtils.findFields(
+            testClass,
+            field -> field.getType() == CamundaTestContext.class,
+            ReflectionUtils.HierarchyTraversalMode.TOP_DOWN)
+        .forEach(
+            field -> {
+              try {
+                final var camundaTestContext = lookupOrCreate(context);
+                makeAccessible(field).set(testInstance, camundaTestContext);
+
+              } catch (final Throwable t) {
+                ExceptionUtils.throwAsUncheckedException(t);
+              }
+            });
   }
 }
@@ -0,0 +1,44 @@
+package io.camunda.test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/** A component of a {@link CamundaTestContext} that is started on demand. */
+public enum CamundaTestComponent {
+  ELASTICSEARCH("elasticsearch"),
+  ZEEBE("zeebe"),
+  OPERATE("operate", ELASTICSEARCH, ZEEBE),
+  TASKLIST("tasklist", ELASTICSEARCH, ZEEBE),
+  CONNECTORS("connectors", ZEEBE, OPERATE);
+
+  private final String name;
+  private final List<CamundaTestComponent> dependencies;
+
+  CamundaTestComponent(final String name, final CamundaTestComponent... dependencies) {
+    this.name = name;
+    this.dependencies = List.of(dependencies);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public List<CamundaTestComponent> getDependencies() {
+    return dependencies;
+  }
+
+  /** Returns the given components together with all of their transitive dependencies. */
+  public static Set<CamundaTestComponent> withDependencies(
+      final Set<CamundaTestComponent> components) {
+    final Set<CamundaTestComponent> result = EnumSet.noneOf(CamundaTestComponent.class);
+    components.forEach(component -> component.collect(result));
+    return result;
+  }
+
+  private void collect(final Set<CamundaTestComponent> result) {
+    if (result.add(this)) {
+      dependencies.forEach(dependency -> dependency.collect(result));
+    }
+  }
+}
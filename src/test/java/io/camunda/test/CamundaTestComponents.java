@@ -0,0 +1,19 @@
+package io.camunda.test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the components that a test class or a test method needs. The components are started
+ * before the test. Other components are started lazily when a test asks for them.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+public @interface CamundaTestComponents {
+
+  CamundaTestComponent[] value();
+}
@@ -1,100 +1,250 @@
 package io.camunda.test;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.DeploymentEvent;
+import io.camunda.zeebe.model.bpmn.BpmnModelInstance;
 import io.zeebe.containers.ZeebeContainer;
+import io.zeebe.containers.exporter.DebugReceiver;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.util.Collections;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testcontainers.Testcontainers;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
-import org.testcontainers.containers.output.Slf4jLogConsumer;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.TestcontainersConfiguration;
 
 public class CamundaTestContext implements ExtensionContext.Store.CloseableResource {
 
   private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
 
+  private static final ObjectReader INBOUND_CONNECTORS_READER =
+      WebAppSession.readerFor(new TypeReference<List<InboundConnector>>() {});
+  private static final Duration VISIBILITY_TIMEOUT = Duration.ofSeconds(30);
+
+  private final CamundaTestEnvironmentConfig config;
+  private final boolean reuse;
   private final Network network;
   private final ZeebeContainer zeebeContainer;
   private final ElasticsearchContainer elasticsearchContainer;
   private final GenericContainer<?> operateContainer;
   private final GenericContainer<?> tasklistContainer;
   private final GenericContainer<?> connectorsContainer;
+  private final EmbeddedZeebeEngine embeddedEngine;
+  private final ExportedRecords exportedRecords;
+  private final DebugReceiver debugReceiver;
+
+  private final Set<CamundaTestComponent> startedComponents =
+      EnumSet.noneOf(CamundaTestComponent.class);
+  private ContainerStartupGraph.StartupReport lastStartupReport;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private final ContainerLogPipeline logPipeline = new ContainerLogPipeline();
+  private final ZeebeClientPool zeebeClientPool;
+  private final DeploymentCache deploymentCache = new DeploymentCache();
+  private ZeebeClock clock;
+  private final AtomicBoolean used = new AtomicBoolean();
+
+  private final VisibilityPoller poller;
+  private final VisibilityPoller.Source<List<OperateClient.ProcessInstance>>
+      operateProcessInstances;
+  private final VisibilityPoller.Source<List<TasklistClient.Task>> tasklistTasks;
+  private final VisibilityPoller.Source<List<InboundConnector>> connectorsInbound;
+  private OperateClient operateClient;
+  private TasklistClient tasklistClient;
 
   public CamundaTestContext() {
-    this(Collections.emptyMap());
+    this(CamundaTestEnvironmentConfig.defaultConfig());
   }
 
   public CamundaTestContext(Map<String, String> connectorSecrets) {
-    network = Network.newNetwork();
+    this(CamundaTestEnvironmentConfig.builder().connectorSecrets(connectorSecrets).build());
+  }
+
+  public CamundaTestContext(final CamundaTestEnvironmentConfig config) {
+    this.config = config;
+
+    // Testcontainers ignores the reuse flag unless it is enabled in the environment
+    reuse =
+        config.reuseEnabled()
+            && config.backend() == CamundaTestBackend.CONTAINERS
+            && TestcontainersConfiguration.getInstance().environmentSupportsReuse();
+    network =
+        reuse
+            ? new ReusableNetwork("camunda-test-" + config.stackId(), config.stackId())
+            : Network.newNetwork();
+
+    // the debug exporter is configured with the address of the receiver
+    if (config.recordStreamEnabled()
+        && config.backend() == CamundaTestBackend.CONTAINERS
+        && !reuse) {
+      exportedRecords = new ExportedRecords();
+      debugReceiver = new DebugReceiver(exportedRecords).start();
+    } else {
+      exportedRecords = null;
+      debugReceiver = null;
+    }
 
     elasticsearchContainer = createElasticsearch(network);
     zeebeContainer = createZeebe(network);
     operateContainer = createOperate(network);
     tasklistContainer = createTasklist(network);
-    connectorsContainer = createConnectors(network, connectorSecrets);
+    connectorsContainer = createConnectors(network, config.connectorSecrets());
+
+    if (config.tmpfsSizeMb() > 0) {
+      final TmpfsStorage tmpfs = new TmpfsStorage(config.tmpfsSizeMb());
+      tmpfs.configure(elasticsearchContainer);
+      tmpfs.configure(zeebeContainer);
+    }
+
+    // after the Elasticsearch profile, the heap of the preset takes precedence
+    final ResourcePreset preset = config.resourcePreset();
+    preset.applyTo(elasticsearchContainer, "elasticsearch", "ES_JAVA_OPTS");
+    preset.applyTo(zeebeContainer, "zeebe", "JAVA_OPTS");
+    preset.applyTo(operateContainer, "operate", "JAVA_OPTS");
+    preset.applyTo(tasklistContainer, "tasklist", "JAVA_OPTS");
+    preset.applyTo(connectorsContainer, "connectors", "JAVA_OPTS");
+
+    if (reuse) {
+      List.<GenericContainer<?>>of(
+              elasticsearchContainer,
+              zeebeContainer,
+              operateContainer,
+              tasklistContainer,
+              connectorsContainer)
+          .forEach(
+              container ->
+                  container
+                      .withReuse(true)
+                      .withLabel(ReusableNetwork.STACK_LABEL, config.stackId()));
+    }
+    embeddedEngine =
+        config.backend() == CamundaTestBackend.EMBEDDED ? new EmbeddedZeebeEngine() : null;
+
+    zeebeClientPool = new ZeebeClientPool(this::getZeebeGatewayAddress);
+
+    poller =
+        new VisibilityPoller(
+            () -> {
+              if (config.exportMode() == ExportMode.BATCHED) {
+                refreshIndices();
+              }
+            });
+    // only the instances from the oldest awaited one on, instead of all instances
+    operateProcessInstances =
+        VisibilityPoller.Source.forKeys(
+            "operate-process-instances",
+            keys ->
+                getOperateClient()
+                    .searchProcessInstances(
+                        keys.stream().mapToLong(Long::longValue).min().orElse(Long.MIN_VALUE)));
+    tasklistTasks =
+        VisibilityPoller.Source.of("tasklist-tasks", () -> getTasklistClient().searchTasks());
+    connectorsInbound =
+        VisibilityPoller.Source.of("connectors-inbound", this::fetchInboundConnectors);
   }
 
   private ElasticsearchContainer createElasticsearch(final Network network) {
-    return new ElasticsearchContainer(DockerImageName.parse("elasticsearch:8.13.0"))
-        .withEnv("xpack.security.enabled", "false")
-        .withNetwork(network)
-        .withNetworkAliases("elasticsearch");
+    final var container =
+        new ElasticsearchContainer(DockerImageName.parse(config.elasticsearchImage()))
+            .withEnv("xpack.security.enabled", "false")
+            .withNetwork(network)
+            .withNetworkAliases("elasticsearch");
+    return config.elasticsearchProfile().configure(container);
   }
 
   private ZeebeContainer createZeebe(final Network network) {
-    return new ZeebeContainer(DockerImageName.parse("camunda/zeebe:SNAPSHOT"))
-        .withNetwork(network)
-        .withNetworkAliases("zeebe")
-        .withAdditionalExposedPort(8080)
-        .withEnv(
-            "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_CLASSNAME",
-            "io.camunda.zeebe.exporter.ElasticsearchExporter")
-        .withEnv("ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_URL", "elasticsearch:9200")
-        .withEnv("ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_BULK_SIZE", "1")
-        .withEnv("ZEEBE_CLOCK_CONTROLLED", "true");
+    final var container =
+        new ZeebeContainer(DockerImageName.parse(config.zeebeImage()))
+            .withNetwork(network)
+            .withNetworkAliases("zeebe")
+            .withAdditionalExposedPort(8080)
+            .withEnv(
+                "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_CLASSNAME",
+                "io.camunda.zeebe.exporter.ElasticsearchExporter")
+            .withEnv("ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_URL", "elasticsearch:9200")
+            .withEnv(
+                "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_BULK_SIZE",
+                String.valueOf(config.exportMode().getBulkSize()))
+            .withEnv(
+                "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_BULK_DELAY",
+                String.valueOf(config.exportMode().getBulkDelaySeconds()))
+            .withEnv("ZEEBE_CLOCK_CONTROLLED", "true");
+
+    config
+        .elasticsearchProfile()
+        .configureIndices(container, "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_INDEX_");
+
+    if (debugReceiver != null) {
+      container.withDebugExporter(debugReceiver.serverAddress().getPort());
+    }
+    return container;
   }
 
   private GenericContainer<?> createOperate(final Network network) {
     final var container =
-        new GenericContainer<>(DockerImageName.parse("camunda/operate:SNAPSHOT"))
+        new GenericContainer<>(DockerImageName.parse(config.operateImage()))
             .withNetwork(network)
             .withNetworkAliases("operate")
-            .withLogConsumer(new Slf4jLogConsumer(LOGGER))
+            .withLogConsumer(logPipeline.consumer("operate"))
+            .waitingFor(
+                new HttpReadinessWaitStrategy("operate", 9600, "/actuator/health/readiness"))
             .withEnv("CAMUNDA_OPERATE_ZEEBE_GATEWAYADDRESS", "zeebe:26500")
             .withEnv("CAMUNDA_OPERATE_ELASTICSEARCH_URL", "http://elasticsearch:9200")
             .withEnv("CAMUNDA_OPERATE_ZEEBEELASTICSEARCH_URL", "http://elasticsearch:9200");
+    config.elasticsearchProfile().configureIndices(container, "CAMUNDA_OPERATE_ELASTICSEARCH_");
     container.addExposedPort(8080);
+    container.addExposedPort(9600); // management
     return container;
   }
 
   private GenericContainer<?> createTasklist(final Network network) {
     final var container =
-        new GenericContainer<>(DockerImageName.parse("camunda/tasklist:SNAPSHOT"))
+        new GenericContainer<>(DockerImageName.parse(config.tasklistImage()))
             .withNetwork(network)
             .withNetworkAliases("tasklist")
-            .withLogConsumer(new Slf4jLogConsumer(LOGGER))
+            .withLogConsumer(logPipeline.consumer("tasklist"))
+            .waitingFor(
+                new HttpReadinessWaitStrategy("tasklist", 9600, "/actuator/health/readiness"))
             .withEnv("CAMUNDA_TASKLIST_ZEEBE_GATEWAYADDRESS", "zeebe:26500")
             .withEnv("CAMUNDA_TASKLIST_ZEEBE_RESTADDRESS", "http://zeebe:8080")
             .withEnv("CAMUNDA_TASKLIST_ELASTICSEARCH_URL", "http://elasticsearch:9200")
             .withEnv("CAMUNDA_TASKLIST_ZEEBEELASTICSEARCH_URL", "http://elasticsearch:9200")
             .withEnv("CAMUNDA_TASKLIST_CSRFPREVENTIONENABLED", "false"); // disable CSRF protection
+    config.elasticsearchProfile().configureIndices(container, "CAMUNDA_TASKLIST_ELASTICSEARCH_");
     container.addExposedPort(8080);
+    container.addExposedPort(9600); // management
     return container;
   }
 
   private GenericContainer<?> createConnectors(
       final Network network, Map<String, String> connectorSecrets) {
     final var container =
-        new GenericContainer<>(DockerImageName.parse("camunda/connectors-bundle:SNAPSHOT"))
+        new GenericContainer<>(DockerImageName.parse(config.connectorsImage()))
             .withNetwork(network)
             .withNetworkAliases("connectors")
-            .withLogConsumer(new Slf4jLogConsumer(LOGGER))
+            .withLogConsumer(logPipeline.consumer("connectors"))
+            .waitingFor(
+                new HttpReadinessWaitStrategy("connectors", 8080, "/actuator/health/readiness"))
             .withEnv("ZEEBE_CLIENT_BROKER_GATEWAY-ADDRESS", "zeebe:26500")
             .withEnv("ZEEBE_CLIENT_SECURITY_PLAINTEXT", "true")
             .withEnv("CAMUNDA_OPERATE_CLIENT_URL", "http://operate:8080")
@@ -107,35 +257,387 @@ public class CamundaTestContext implements ExtensionContext.Store.CloseableResou
     return container;
   }
 
-  public void start(final boolean enabledConnectors) {
-    LOGGER.info("Starting containers...");
+  public ContainerStartupGraph.StartupReport start() {
+    final Set<CamundaTestComponent> components = EnumSet.of(CamundaTestComponent.ZEEBE);
+    if (config.connectorsEnabled()) {
+      components.add(CamundaTestComponent.CONNECTORS);
+    }
+    return start(components);
+  }
+
+  /** Starts the given components and their dependencies, if they are not started yet. */
+  public synchronized ContainerStartupGraph.StartupReport start(
+      final Set<CamundaTestComponent> components) {
+    final Set<CamundaTestComponent> missingComponents =
+        CamundaTestComponent.withDependencies(components);
+    if (reuse) {
+      // the state of reused containers is found and wiped through the exported records
+      missingComponents.add(CamundaTestComponent.ELASTICSEARCH);
+    }
+    missingComponents.removeAll(startedComponents);
 
-    final Stream<GenericContainer<?>> containers =
-        Stream.of(elasticsearchContainer, zeebeContainer);
+    final ContainerStartupGraph startupGraph = new ContainerStartupGraph();
+    if (embeddedEngine != null) {
+      if (!EnumSet.of(CamundaTestComponent.ZEEBE).containsAll(missingComponents)) {
+        throw new IllegalStateException(
+            "The embedded backend provides only Zeebe, but the test requires %s"
+                .formatted(missingComponents));
+      }
+      missingComponents.forEach(
+          component -> startupGraph.add(component.getName(), embeddedEngine::start));
 
-    containers.parallel().forEach(GenericContainer::start);
+    } else {
+      missingComponents.forEach(
+          component ->
+              startupGraph.add(
+                  component.getName(),
+                  getContainer(component),
+                  component.getDependencies().stream()
+                      .map(CamundaTestComponent::getName)
+                      .toArray(String[]::new)));
+    }
+
+    if (startupGraph.isEmpty()) {
+      return lastStartupReport;
+    }
 
-    operateContainer.start();
-    tasklistContainer.start();
+    LOGGER.info("Starting containers {}...", missingComponents);
 
-    if (enabledConnectors) {
-      connectorsContainer.start();
+    if (debugReceiver != null && missingComponents.contains(CamundaTestComponent.ZEEBE)) {
+      // the broker connects to the receiver through the host
+      Testcontainers.exposeHostPorts(debugReceiver.serverAddress().getPort());
     }
 
+    final boolean firstStart = startedComponents.isEmpty();
+    lastStartupReport = startupGraph.start();
+    startedComponents.addAll(missingComponents);
+
     LOGGER.info("...Container started");
+
+    // the started components may have created new indices
+    applyIndexSettings();
+
+    if (reuse && firstStart) {
+      // the containers may be attached from a previous run, with the state of its tests
+      LOGGER.info("Wipe the state of the reusable containers before the first test");
+      reset();
+    }
+    return lastStartupReport;
+  }
+
+  public synchronized boolean isStarted(final CamundaTestComponent component) {
+    return startedComponents.contains(component);
+  }
+
+  /**
+   * Returns the running environment to a clean state: active process instances are canceled, the
+   * clock is reset, and the exported data and the data of Operate and Tasklist are deleted.
+   * Deployed resources stay deployed. The active process instances are found in Elasticsearch, or
+   * in the record stream if Elasticsearch is not started. For the embedded backend, the engine is
+   * replaced by a new one instead, without any deployments.
+   */
+  public synchronized Duration reset() {
+    final Instant resetStart = Instant.now();
+
+    if (embeddedEngine != null) {
+      // a new engine is faster than canceling the instances
+      if (isStarted(CamundaTestComponent.ZEEBE)) {
+        embeddedEngine.restart();
+        deploymentCache.clear();
+      }
+
+    } else if (isStarted(CamundaTestComponent.ZEEBE)) {
+      getClock().reset();
+    }
+
+    if (isStarted(CamundaTestComponent.ELASTICSEARCH)) {
+      final var stateCleaner =
+          new EnvironmentStateCleaner(httpClient, elasticsearchContainer.getHttpHostAddress());
+      stateCleaner.cancelActiveProcessInstances(getZeebeClient(), null);
+      stateCleaner.deleteData();
+
+      // the data is deleted by query, the indices that the last test created stay
+      applyIndexSettings();
+
+    } else if (embeddedEngine == null && isStarted(CamundaTestComponent.ZEEBE)) {
+      // without Elasticsearch, the active process instances are found in the record stream
+      if (exportedRecords == null) {
+        throw new IllegalStateException(
+            "Can't reset the environment without Elasticsearch or the record stream, start"
+                + " Elasticsearch or enable the record stream");
+      }
+      exportedRecords.awaitExported(getZeebeClient());
+      EnvironmentStateCleaner.cancelProcessInstances(
+          getZeebeClient(), exportedRecords.getActiveProcessInstanceKeys());
+      // the records of the cancellations belong to the previous test
+      exportedRecords.awaitExported(getZeebeClient());
+    }
+
+    if (exportedRecords != null) {
+      exportedRecords.clear();
+    }
+
+    used.set(false);
+
+    final Duration resetDuration = Duration.between(resetStart, Instant.now());
+    LOGGER.info(
+        "Reset the environment in {} (cold start took {})",
+        resetDuration,
+        lastStartupReport != null ? lastStartupReport.total() : Duration.ZERO);
+    return resetDuration;
+  }
+
+  /** Waits until Operate shows the process instance in the given state, and returns it. */
+  public OperateClient.ProcessInstance awaitProcessInstance(
+      final long processInstanceKey, final String state) {
+    return awaitVisible(
+        CamundaTestComponent.OPERATE,
+        operateProcessInstances,
+        processInstanceKey,
+        processInstance ->
+            processInstance.key() == processInstanceKey && state.equals(processInstance.state()));
+  }
+
+  /** Waits until Tasklist shows a task that matches the filter, and returns it. */
+  public TasklistClient.Task awaitUserTask(final Predicate<TasklistClient.Task> filter) {
+    return awaitVisible(CamundaTestComponent.TASKLIST, tasklistTasks, null, filter);
+  }
+
+  /** Waits until the connectors runtime has activated the inbound connector with the context. */
+  public void awaitInboundConnector(final String inboundContext) {
+    awaitVisible(
+        CamundaTestComponent.CONNECTORS,
+        connectorsInbound,
+        null,
+        inboundConnector -> inboundContext.equals(inboundConnector.getContext()));
+  }
+
+  private <T> T awaitVisible(
+      final CamundaTestComponent component,
+      final VisibilityPoller.Source<List<T>> source,
+      final Long key,
+      final Predicate<T> filter) {
+    // start the component, if needed, before the poller queries it
+    getStartedContainer(component);
+    refreshIndices();
+
+    return poller.await(
+        source, key, items -> items.stream().filter(filter).findFirst(), VISIBILITY_TIMEOUT);
+  }
+
+  /** Returns the client of Operate. The client shares its connections and its login session. */
+  public synchronized OperateClient getOperateClient() {
+    if (operateClient == null) {
+      operateClient = new OperateClient(getEndpoint(getOperateContainer()));
+    }
+    return operateClient;
+  }
+
+  /** Returns the client of Tasklist. The client shares its connections and its login session. */
+  public synchronized TasklistClient getTasklistClient() {
+    if (tasklistClient == null) {
+      tasklistClient = new TasklistClient(getEndpoint(getTasklistContainer()));
+    }
+    return tasklistClient;
+  }
+
+  private List<InboundConnector> fetchInboundConnectors() throws IOException, InterruptedException {
+    final HttpResponse<InputStream> response =
+        httpClient.send(
+            HttpRequest.newBuilder()
+                .uri(URI.create(getEndpoint(getConnectorsContainer()) + "/inbound"))
+                .GET()
+                .build(),
+            HttpResponse.BodyHandlers.ofInputStream());
+
+    try (final InputStream body = response.body()) {
+      if (response.statusCode() != 200) {
+        throw new IOException("Request failed with status %d".formatted(response.statusCode()));
+      }
+      return INBOUND_CONNECTORS_READER.readValue(body);
+    }
+  }
+
+  private static String getEndpoint(final GenericContainer<?> container) {
+    return "http://" + container.getHost() + ":" + container.getMappedPort(8080);
+  }
+
+  /**
+   * Refreshes the indices, so that the documents that are already written to Elasticsearch are
+   * visible for searches. It doesn't flush the bulk of the exporter in the broker, see {@link
+   * ExportMode#BATCHED}.
+   */
+  public void refreshIndices() {
+    if (!isStarted(CamundaTestComponent.ELASTICSEARCH)) {
+      return;
+    }
+
+    try {
+      httpClient.send(
+          HttpRequest.newBuilder()
+              .uri(
+                  URI.create(
+                      "http://%s/zeebe-record*,operate-*,tasklist-*/_refresh"
+                          .formatted(elasticsearchContainer.getHttpHostAddress())))
+              .POST(HttpRequest.BodyPublishers.noBody())
+              .build(),
+          HttpResponse.BodyHandlers.discarding());
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void applyIndexSettings() {
+    if (isStarted(CamundaTestComponent.ELASTICSEARCH)) {
+      config
+          .elasticsearchProfile()
+          .applyIndexSettings(httpClient, elasticsearchContainer.getHttpHostAddress());
+    }
+  }
+
+  /**
+   * Resets the environment if a previous test used it, and marks it as used by the next test. A
+   * reset marks the environment as unused, e.g. when a pool resets it before the next lease.
+   */
+  public synchronized void prepareForTest() {
+    if (used.getAndSet(true)) {
+      reset();
+      used.set(true);
+    }
+  }
+
+  /**
+   * Returns the clock of Zeebe, which can be moved to trigger timers. For containers, the clock
+   * reads the timers from the exported records, see {@link #getRecordSource()}.
+   */
+  public synchronized ZeebeClock getClock() {
+    if (clock == null) {
+      clock =
+          embeddedEngine != null
+              ? ZeebeClock.forEmbeddedEngine(embeddedEngine)
+              : ZeebeClock.forContainer(this, httpClient);
+    }
+    return clock;
+  }
+
+  /**
+   * Returns the records that the broker exported to the test JVM, since the start or the last
+   * reset. The records are not available for the embedded backend or for reused containers.
+   */
+  public ExportedRecords getExportedRecords() {
+    if (exportedRecords == null) {
+      final String reason;
+      if (embeddedEngine != null) {
+        reason = "the embedded backend";
+      } else if (reuse) {
+        reason = "reused containers";
+      } else {
+        reason = "a disabled record stream, see recordStreamEnabled()";
+      }
+      throw new IllegalStateException(
+          "The exported records are not available for %s".formatted(reason));
+    }
+    getStartedContainer(CamundaTestComponent.ZEEBE);
+    return exportedRecords;
+  }
+
+  /**
+   * Returns the records that the broker exported: the record stream if it is available, otherwise
+   * the records in Elasticsearch, e.g. for reused containers. The debug receiver of the stream
+   * can't follow reused containers, since they keep the exporter of the first test JVM.
+   */
+  public RecordSource getRecordSource() {
+    if (exportedRecords != null) {
+      return getExportedRecords();
+    }
+    if (embeddedEngine == null && isStarted(CamundaTestComponent.ELASTICSEARCH)) {
+      return new ElasticsearchRecords(httpClient, elasticsearchContainer.getHttpHostAddress());
+    }
+    throw new IllegalStateException(
+        "The exported records are not available, enable the record stream or start Elasticsearch");
+  }
+
+  /** Returns the shared client of the environment. It is closed when the context is closed. */
+  public ZeebeClient getZeebeClient() {
+    return zeebeClientPool.getClient();
+  }
+
+  public ZeebeClientPool.Metrics getZeebeClientMetrics() {
+    return zeebeClientPool.getMetrics();
+  }
+
+  /**
+   * Deploys the model, unless an equal model is already deployed in this environment and is still
+   * the latest version of its process.
+   */
+  public DeploymentEvent deploy(final BpmnModelInstance model, final String resourceName) {
+    return deploymentCache.deploy(getZeebeClient(), model, resourceName);
+  }
+
+  /**
+   * Deploys the resource from the classpath, unless it is already deployed. The resource is read
+   * once per JVM, see {@link ClasspathResourceCache}.
+   */
+  public DeploymentEvent deployResourceFromClasspath(final String resourceName) {
+    return deploymentCache.deploy(
+        getZeebeClient(), ClasspathResourceCache.getResource(resourceName));
+  }
+
+  public DeploymentCache.Metrics getDeploymentMetrics() {
+    return deploymentCache.getMetrics();
+  }
+
+  private GenericContainer<?> getContainer(final CamundaTestComponent component) {
+    return switch (component) {
+      case ELASTICSEARCH -> elasticsearchContainer;
+      case ZEEBE -> zeebeContainer;
+      case OPERATE -> operateContainer;
+      case TASKLIST -> tasklistContainer;
+      case CONNECTORS -> connectorsContainer;
+    };
+  }
+
+  private GenericContainer<?> getStartedContainer(final CamundaTestComponent component) {
+    if (!isStarted(component)) {
+      start(EnumSet.of(component));
+    }
+    return getContainer(component);
   }
 
   @Override
   public void close() throws Throwable {
+    LOGGER.info("Deployments of the environment: {}", deploymentCache.getMetrics());
     LOGGER.info("Closing containers...");
 
+    poller.close();
+
+    zeebeClientPool.close();
+    logPipeline.close();
+
+    if (embeddedEngine != null) {
+      embeddedEngine.stop();
+    }
+
+    if (reuse) {
+      LOGGER.info("...Keep the containers running for the next run.");
+      return;
+    }
+
     if (connectorsContainer.isRunning()) {
       connectorsContainer.stop();
     }
 
     tasklistContainer.stop();
     operateContainer.stop();
-    zeebeContainer.shutdownGracefully(Duration.ofSeconds(10));
+    if (zeebeContainer.isRunning()) {
+      zeebeContainer.shutdownGracefully(Duration.ofSeconds(10));
+    }
+    if (debugReceiver != null) {
+      debugReceiver.stop();
+    }
     elasticsearchContainer.stop();
 
     network.close();
@@ -143,23 +645,58 @@ public class CamundaTestContext implements ExtensionContext.Store.CloseableResou
     LOGGER.info("...Containers closed.");
   }
 
+  /** Returns the logs of the containers, to keep only the logs of the current test. */
+  public ContainerLogPipeline getLogPipeline() {
+    return logPipeline;
+  }
+
+  public CamundaTestEnvironmentConfig getConfig() {
+    return config;
+  }
+
   public ZeebeContainer getZeebeContainer() {
+    if (embeddedEngine != null) {
+      throw new IllegalStateException("Zeebe doesn't run in a container for the embedded backend");
+    }
+    getStartedContainer(CamundaTestComponent.ZEEBE);
     return zeebeContainer;
   }
 
+  /** Returns the address of the gRPC gateway, for the container or the embedded backend. */
+  public String getZeebeGatewayAddress() {
+    if (embeddedEngine != null) {
+      if (!isStarted(CamundaTestComponent.ZEEBE)) {
+        start(EnumSet.of(CamundaTestComponent.ZEEBE));
+      }
+      return embeddedEngine.getGatewayAddress();
+    }
+    return getZeebeContainer().getExternalGatewayAddress();
+  }
+
   public ElasticsearchContainer getElasticsearchContainer() {
+    getStartedContainer(CamundaTestComponent.ELASTICSEARCH);
     return elasticsearchContainer;
   }
 
   public GenericContainer<?> getOperateContainer() {
-    return operateContainer;
+    return getStartedContainer(CamundaTestComponent.OPERATE);
   }
 
   public GenericContainer<?> getConnectorsContainer() {
-    return connectorsContainer;
+    return getStartedContainer(CamundaTestComponent.CONNECTORS);
   }
 
   public GenericContainer<?> getTasklistContainer() {
-    return tasklistContainer;
+    return getStartedContainer(CamundaTestComponent.TASKLIST);
+  }
+
+  /** An active inbound connector of the connectors runtime. */
+  public record InboundConnector(
+      String type, String bpmnProcessId, String tenantId, Map<String, String> data) {
+
+    /** Returns the context of a webhook connector, i.e. the path of its endpoint. */
+    public String getContext() {
+      return data != null ? data.get("path") : null;
+    }
   }
 }
@@ -0,0 +1,239 @@
+package io.camunda.test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The configuration of a {@link CamundaTestContext}. Contexts with an equal configuration are
+ * interchangeable and can be shared between tests.
+ */
+public record CamundaTestEnvironmentConfig(
+    boolean connectorsEnabled,
+    Map<String, String> connectorSecrets,
+    String elasticsearchImage,
+    String zeebeImage,
+    String operateImage,
+    String tasklistImage,
+    String connectorsImage,
+    ExportMode exportMode,
+    ElasticsearchProfile elasticsearchProfile,
+    ResourcePreset resourcePreset,
+    CamundaTestBackend backend,
+    boolean reuseEnabled,
+    boolean recordStreamEnabled,
+    boolean identitySnapshotEnabled,
+    int tmpfsSizeMb) {
+
+  /** The system property to reuse the containers across runs, see {@link #reuseEnabled()}. */
+  public static final String REUSE_PROPERTY = "camunda.test.reuse";
+
+  /** The system property to start from a snapshot, see {@link #identitySnapshotEnabled()}. */
+  public static final String IDENTITY_SNAPSHOT_PROPERTY = "camunda.test.identity-snapshot";
+
+  /** The system property to set the size of the tmpfs mounts, see {@link #tmpfsSizeMb()}. */
+  public static final String TMPFS_SIZE_PROPERTY = "camunda.test.tmpfs-size-mb";
+
+  public CamundaTestEnvironmentConfig {
+    connectorSecrets = Map.copyOf(connectorSecrets);
+  }
+
+  public static CamundaTestEnvironmentConfig defaultConfig() {
+    return builder().build();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns a stable id of the stack that is defined by this configuration, i.e. of the images and
+   * the environment of the containers. Stacks with the same id can be reused across runs.
+   */
+  public String stackId() {
+    final String stack =
+        String.join(
+            "|",
+            String.valueOf(connectorsEnabled),
+            // the iteration order of the map is not stable across JVMs
+            new TreeMap<>(connectorSecrets).toString(),
+            elasticsearchImage,
+            zeebeImage,
+            operateImage,
+            tasklistImage,
+            connectorsImage,
+            exportMode.name(),
+            elasticsearchProfile.name(),
+            resourcePreset.name(),
+            backend.name(),
+            String.valueOf(recordStreamEnabled),
+            String.valueOf(identitySnapshotEnabled),
+            String.valueOf(tmpfsSizeMb));
+
+    try {
+      final byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(stack.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, 6);
+
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public Builder toBuilder() {
+    return new Builder()
+        .connectorsEnabled(connectorsEnabled)
+        .connectorSecrets(connectorSecrets)
+        .elasticsearchImage(elasticsearchImage)
+        .zeebeImage(zeebeImage)
+        .operateImage(operateImage)
+        .tasklistImage(tasklistImage)
+        .connectorsImage(connectorsImage)
+        .exportMode(exportMode)
+        .elasticsearchProfile(elasticsearchProfile)
+        .resourcePreset(resourcePreset)
+        .backend(backend)
+        .reuseEnabled(reuseEnabled)
+        .recordStreamEnabled(recordStreamEnabled)
+        .identitySnapshotEnabled(identitySnapshotEnabled)
+        .tmpfsSizeMb(tmpfsSizeMb);
+  }
+
+  public static final class Builder {
+
+    private boolean connectorsEnabled = false;
+    private Map<String, String> connectorSecrets = Collections.emptyMap();
+    private String elasticsearchImage = "elasticsearch:8.13.0";
+    private String zeebeImage = "camunda/zeebe:SNAPSHOT";
+    private String operateImage = "camunda/operate:SNAPSHOT";
+    private String tasklistImage = "camunda/tasklist:SNAPSHOT";
+    private String connectorsImage = "camunda/connectors-bundle:SNAPSHOT";
+    private ExportMode exportMode = ExportMode.IMMEDIATE;
+    private ElasticsearchProfile elasticsearchProfile = ElasticsearchProfile.DEFAULT;
+    private ResourcePreset resourcePreset = ResourcePreset.fromSystemProperty();
+    private CamundaTestBackend backend = CamundaTestBackend.fromSystemProperty();
+    private boolean reuseEnabled = Boolean.getBoolean(REUSE_PROPERTY);
+    private boolean recordStreamEnabled = true;
+    private boolean identitySnapshotEnabled = Boolean.getBoolean(IDENTITY_SNAPSHOT_PROPERTY);
+    private int tmpfsSizeMb = Integer.getInteger(TMPFS_SIZE_PROPERTY, 0);
+
+    private Builder() {}
+
+    public Builder connectorsEnabled(final boolean connectorsEnabled) {
+      this.connectorsEnabled = connectorsEnabled;
+      return this;
+    }
+
+    public Builder connectorSecrets(final Map<String, String> connectorSecrets) {
+      this.connectorSecrets = connectorSecrets;
+      return this;
+    }
+
+    public Builder elasticsearchImage(final String elasticsearchImage) {
+      this.elasticsearchImage = elasticsearchImage;
+      return this;
+    }
+
+    public Builder zeebeImage(final String zeebeImage) {
+      this.zeebeImage = zeebeImage;
+      return this;
+    }
+
+    public Builder operateImage(final String operateImage) {
+      this.operateImage = operateImage;
+      return this;
+    }
+
+    public Builder tasklistImage(final String tasklistImage) {
+      this.tasklistImage = tasklistImage;
+      return this;
+    }
+
+    public Builder connectorsImage(final String connectorsImage) {
+      this.connectorsImage = connectorsImage;
+      return this;
+    }
+
+    public Builder exportMode(final ExportMode exportMode) {
+      this.exportMode = exportMode;
+      return this;
+    }
+
+    public Builder elasticsearchProfile(final ElasticsearchProfile elasticsearchProfile) {
+      this.elasticsearchProfile = elasticsearchProfile;
+      return this;
+    }
+
+    public Builder resourcePreset(final ResourcePreset resourcePreset) {
+      this.resourcePreset = resourcePreset;
+      return this;
+    }
+
+    public Builder backend(final CamundaTestBackend backend) {
+      this.backend = backend;
+      return this;
+    }
+
+    /**
+     * Keeps the containers running after the tests, and attaches to them on the next run. Requires
+     * {@code testcontainers.reuse.enable=true} in {@code ~/.testcontainers.properties}.
+     */
+    public Builder reuseEnabled(final boolean reuseEnabled) {
+      this.reuseEnabled = reuseEnabled;
+      return this;
+    }
+
+    /**
+     * Streams the records of the broker to the test JVM with the debug exporter, see {@link
+     * CamundaTestContext#getExportedRecords()}. The stream is not available for reused containers,
+     * because the address of the receiver changes with every run. Without the stream, the clock
+     * and the reset read the records from Elasticsearch.
+     */
+    public Builder recordStreamEnabled(final boolean recordStreamEnabled) {
+      this.recordStreamEnabled = recordStreamEnabled;
+      return this;
+    }
+
+    /**
+     * Starts the Postgres of the multi-tenant stack from a snapshot with the initialized data of
+     * Keycloak and Identity. The snapshot is captured on the first start, see {@link
+     * PostgresSnapshot}.
+     */
+    public Builder identitySnapshotEnabled(final boolean identitySnapshotEnabled) {
+      this.identitySnapshotEnabled = identitySnapshotEnabled;
+      return this;
+    }
+
+    /**
+     * Mounts the data directories of Zeebe, Elasticsearch and Postgres as tmpfs of the given size,
+     * and turns off their durability, see {@link TmpfsStorage}. Disabled with {@code 0}.
+     */
+    public Builder tmpfsSizeMb(final int tmpfsSizeMb) {
+      this.tmpfsSizeMb = tmpfsSizeMb;
+      return this;
+    }
+
+    public CamundaTestEnvironmentConfig build() {
+      return new CamundaTestEnvironmentConfig(
+          connectorsEnabled,
+          connectorSecrets,
+          elasticsearchImage,
+          zeebeImage,
+          operateImage,
+          tasklistImage,
+          connectorsImage,
+          exportMode,
+          elasticsearchProfile,
+          resourcePreset,
+          backend,
+          reuseEnabled,
+          recordStreamEnabled,
+          identitySnapshotEnabled,
+          tmpfsSizeMb);
+    }
+  }
+}
@@ -0,0 +1,262 @@
+package io.camunda.test;
+
+import com.sun.management.OperatingSystemMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of pre-started {@link CamundaTestContext}s with the same configuration. Used if the tests
+ * run in parallel, so that every test leases its own running stack instead of starting one.
+ */
+public final class CamundaTestEnvironmentPool {
+
+  public static final String PARALLEL_ENABLED_PROPERTY =
+      "junit.jupiter.execution.parallel.enabled";
+  public static final String POOL_SIZE_PROPERTY = "camunda.test.pool.size";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  // rough footprint of a stack with Elasticsearch, Zeebe, Operate and Tasklist, without budgets
+  private static final long MEMORY_PER_STACK = 4L * 1024 * 1024 * 1024;
+  private static final int CPUS_PER_STACK = 2;
+
+  // consecutive failed starts until the pool gives up, e.g. if an image can't be pulled
+  private static final int MAX_START_ATTEMPTS = 3;
+  private static final Duration LEASE_TIMEOUT = Duration.ofMinutes(10);
+  private static final Duration FAILURE_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+  private static final Map<CamundaTestEnvironmentConfig, CamundaTestEnvironmentPool> POOLS =
+      new ConcurrentHashMap<>();
+
+  private final CamundaTestEnvironmentConfig config;
+  private final int size;
+  private final BlockingQueue<CamundaTestContext> available = new LinkedBlockingQueue<>();
+  private final List<CamundaTestContext> contexts = new CopyOnWriteArrayList<>();
+  private final AtomicInteger requested = new AtomicInteger();
+  private final AtomicInteger failedStarts = new AtomicInteger();
+  private volatile Exception startFailure;
+  private final ExecutorService executor;
+
+  private CamundaTestEnvironmentPool(final CamundaTestEnvironmentConfig config, final int size) {
+    this.config = config;
+    this.size = size;
+
+    executor =
+        Executors.newFixedThreadPool(
+            size,
+            runnable -> {
+              final Thread thread = new Thread(runnable, "camunda-test-pool");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public static CamundaTestEnvironmentPool forConfig(
+      final CamundaTestEnvironmentConfig config,
+      final Function<String, Optional<String>> configurationParameters) {
+    return POOLS.computeIfAbsent(
+        config,
+        key -> new CamundaTestEnvironmentPool(key, poolSize(key, configurationParameters)));
+  }
+
+  public static boolean isParallelExecutionEnabled(
+      final Function<String, Optional<String>> configurationParameters) {
+    return configurationParameters
+        .apply(PARALLEL_ENABLED_PROPERTY)
+        .map(Boolean::parseBoolean)
+        .orElse(false);
+  }
+
+  public static void closeAll() {
+    POOLS.values().forEach(CamundaTestEnvironmentPool::close);
+    POOLS.clear();
+  }
+
+  private static int poolSize(
+      final CamundaTestEnvironmentConfig config,
+      final Function<String, Optional<String>> configurationParameters) {
+    final Optional<Integer> configuredSize =
+        configurationParameters.apply(POOL_SIZE_PROPERTY).map(Integer::parseInt);
+    if (configuredSize.isPresent()) {
+      return Math.max(1, configuredSize.get());
+    }
+
+    // the components that the tests of a stack may start
+    final List<String> containers =
+        Arrays.stream(CamundaTestComponent.values())
+            .filter(
+                component ->
+                    config.connectorsEnabled() || component != CamundaTestComponent.CONNECTORS)
+            .map(CamundaTestComponent::getName)
+            .toList();
+    final double cpusPerStack =
+        config.resourcePreset().getCpuLimit(containers).orElse(CPUS_PER_STACK);
+    final long memoryPerStack =
+        config.resourcePreset().getMemoryLimit(containers).orElse(MEMORY_PER_STACK);
+
+    final int cpuLimit = (int) (Runtime.getRuntime().availableProcessors() / cpusPerStack);
+
+    final var operatingSystem =
+        (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    final int memoryLimit = (int) (operatingSystem.getTotalMemorySize() / memoryPerStack);
+
+    final int size = Math.max(1, Math.min(cpuLimit, memoryLimit));
+    LOGGER.info(
+        "Environment pool size is {} (CPU limit: {}, memory limit: {}, resources: {})",
+        size,
+        cpuLimit,
+        memoryLimit,
+        config.resourcePreset());
+    return size;
+  }
+
+  /** Starts all environments of the pool in the background. */
+  public void warmUp() {
+    while (requestEnvironment()) {
+      // request until the pool is full
+    }
+  }
+
+  /**
+   * Waits until an environment is available and leases it until the lease is closed. Fails with
+   * the cause if the environments of the pool can't be started.
+   */
+  public Lease lease() {
+    CamundaTestContext context = available.poll();
+    if (context == null) {
+      throwIfStartFailed();
+      requestEnvironment();
+
+      final long deadline = System.nanoTime() + LEASE_TIMEOUT.toNanos();
+      try {
+        // check for a failed start in between, instead of waiting until the timeout
+        while (context == null && System.nanoTime() < deadline) {
+          context = available.poll(FAILURE_CHECK_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+          if (context == null) {
+            throwIfStartFailed();
+          }
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for an environment", e);
+      }
+
+      if (context == null) {
+        throw new IllegalStateException(
+            "No environment available in the pool (size: %d)".formatted(size));
+      }
+    }
+    return new Lease(this, context);
+  }
+
+  private void throwIfStartFailed() {
+    final Exception failure = startFailure;
+    if (failure != null) {
+      throw new IllegalStateException(
+          "Failed to start an environment for the pool after %d attempts"
+              .formatted(MAX_START_ATTEMPTS),
+          failure);
+    }
+  }
+
+  private void release(final CamundaTestContext context) {
+    try {
+      context.reset();
+      available.offer(context);
+
+    } catch (final Exception e) {
+      LOGGER.warn("Failed to reset an environment of the pool, replace it", e);
+      contexts.remove(context);
+      requested.decrementAndGet();
+      requestEnvironment();
+      closeQuietly(context);
+    }
+  }
+
+  private boolean requestEnvironment() {
+    if (requested.getAndUpdate(count -> count < size ? count + 1 : count) >= size) {
+      return false;
+    }
+
+    executor.submit(
+        () -> {
+          // the environments of the pool have the same configuration, and must not attach to the
+          // same reused containers
+          final CamundaTestContext context =
+              new CamundaTestContext(config.toBuilder().reuseEnabled(false).build());
+          contexts.add(context);
+          try {
+            context.start();
+            failedStarts.set(0);
+            available.offer(context);
+
+          } catch (final Exception e) {
+            // don't keep the containers that started already
+            contexts.remove(context);
+            closeQuietly(context);
+            requested.decrementAndGet();
+
+            if (failedStarts.incrementAndGet() < MAX_START_ATTEMPTS) {
+              LOGGER.warn("Failed to start an environment for the pool, retry", e);
+              requestEnvironment();
+            } else {
+              LOGGER.error("Failed to start an environment for the pool", e);
+              startFailure = e;
+            }
+          }
+        });
+    return true;
+  }
+
+  private void close() {
+    executor.shutdownNow();
+
+    contexts.forEach(CamundaTestEnvironmentPool::closeQuietly);
+    contexts.clear();
+    available.clear();
+  }
+
+  private static void closeQuietly(final CamundaTestContext context) {
+    try {
+      context.close();
+    } catch (final Throwable t) {
+      LOGGER.warn("Failed to close an environment of the pool", t);
+    }
+  }
+
+  public static final class Lease implements ExtensionContext.Store.CloseableResource {
+
+    private final CamundaTestEnvironmentPool pool;
+    private final CamundaTestContext context;
+
+    private Lease(final CamundaTestEnvironmentPool pool, final CamundaTestContext context) {
+      this.pool = pool;
+      this.context = context;
+    }
+
+    public CamundaTestContext getContext() {
+      return context;
+    }
+
+    @Override
+    public void close() {
+      pool.release(context);
+    }
+  }
+}
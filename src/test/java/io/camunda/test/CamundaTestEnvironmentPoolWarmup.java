@@ -0,0 +1,27 @@
+package io.camunda.test;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * Starts the environments of the default pool in the background as soon as the test run starts,
+ * if the tests are executed in parallel. Registered as a service of the JUnit launcher.
+ */
+public class CamundaTestEnvironmentPoolWarmup implements TestExecutionListener {
+
+  @Override
+  public void testPlanExecutionStarted(final TestPlan testPlan) {
+    final var configurationParameters = testPlan.getConfigurationParameters();
+
+    if (CamundaTestEnvironmentPool.isParallelExecutionEnabled(configurationParameters::get)) {
+      CamundaTestEnvironmentPool.forConfig(
+              CamundaTestEnvironmentConfig.defaultConfig(), configurationParameters::get)
+          .warmUp();
+    }
+  }
+
+  @Override
+  public void testPlanExecutionFinished(final TestPlan testPlan) {
+    CamundaTestEnvironmentPool.closeAll();
+  }
+}
@@ -0,0 +1,30 @@
+package io.camunda.test;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Shares running {@link CamundaTestContext}s between all tests and test classes of a test run.
+ * The contexts are stored in the root store, keyed by their configuration, and closed when the
+ * test run is finished.
+ */
+public final class CamundaTestEnvironmentRegistry {
+
+  private static final ExtensionContext.Namespace NAMESPACE =
+      ExtensionContext.Namespace.create(CamundaTestEnvironmentRegistry.class);
+
+  private CamundaTestEnvironmentRegistry() {}
+
+  public static CamundaTestContext lookupOrCreate(
+      final ExtensionContext extensionContext, final CamundaTestEnvironmentConfig config) {
+    final var store = extensionContext.getRoot().getStore(NAMESPACE);
+
+    return store.getOrComputeIfAbsent(
+        config,
+        (key) -> {
+          CamundaTestContext camundaTestContext = new CamundaTestContext(config);
+          camundaTestContext.start();
+          return camundaTestContext;
+        },
+        CamundaTestContext.class);
+  }
+}
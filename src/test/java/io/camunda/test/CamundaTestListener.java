@@ -3,52 +3,111 @@ package io.camunda.test;
 import static org.junit.platform.commons.util.ReflectionUtils.makeAccessible;
 
 import io.camunda.zeebe.client.ZeebeClient;
-
-import java.util.Collections;
+import java.lang.reflect.AnnotatedElement;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
 import org.junit.platform.commons.util.ExceptionUtils;
 import org.junit.platform.commons.util.ReflectionUtils;
 
-public class CamundaTestListener implements BeforeEachCallback {
+public class CamundaTestListener implements BeforeEachCallback, AfterEachCallback {
 
-    private final boolean enableConnectors;
-    private final Map<String, String> connectorSecrets;
+  private final CamundaTestEnvironmentConfig config;
 
-    public CamundaTestListener() {
-        this(false, Collections.emptyMap());
-    }
+  public CamundaTestListener() {
+    this(CamundaTestEnvironmentConfig.defaultConfig());
+  }
 
-    public CamundaTestListener(boolean enableConnectors, Map<String, String> connectorSecrets) {
-        this.enableConnectors = enableConnectors;
-        this.connectorSecrets = connectorSecrets;
-    }
+  public CamundaTestListener(boolean enableConnectors, Map<String, String> connectorSecrets) {
+    this(
+        CamundaTestEnvironmentConfig.builder()
+            .connectorsEnabled(enableConnectors)
+            .connectorSecrets(connectorSecrets)
+            .build());
+  }
+
+  public CamundaTestListener(final CamundaTestEnvironmentConfig config) {
+    this.config = config;
+  }
 
-    @Override
+  @Override
   public void beforeEach(ExtensionContext extensionContext) throws Exception {
+    final CamundaTestContext camundaTestContext = lookupOrCreate(extensionContext);
+
+    // the environment is shared, remove the data of the previous test
+    camundaTestContext.prepareForTest();
+    camundaTestContext.getLogPipeline().startTest();
+
+    final Set<CamundaTestComponent> requiredComponents = getRequiredComponents(extensionContext);
+    if (!requiredComponents.isEmpty()) {
+      camundaTestContext.start(requiredComponents);
+    }
+
     extensionContext
         .getRequiredTestInstances()
         .getAllInstances()
         .forEach(instance -> injectFields(extensionContext, instance, instance.getClass()));
   }
 
+  @Override
+  public void afterEach(final ExtensionContext extensionContext) {
+    // the logs are written only for failed tests, a leased environment is still held here
+    if (extensionContext.getExecutionException().isPresent()) {
+      lookupOrCreate(extensionContext).getLogPipeline().dump(getLogsDirectory(extensionContext));
+    }
+  }
+
+  static Path getLogsDirectory(final ExtensionContext extensionContext) {
+    return ContainerLogPipeline.FAILED_TESTS_DIRECTORY
+        .resolve(extensionContext.getRequiredTestClass().getName())
+        .resolve(extensionContext.getRequiredTestMethod().getName());
+  }
+
+  private static Set<CamundaTestComponent> getRequiredComponents(
+      final ExtensionContext extensionContext) {
+    final Set<CamundaTestComponent> components = EnumSet.noneOf(CamundaTestComponent.class);
+
+    final List<AnnotatedElement> elements = new ArrayList<>();
+    extensionContext.getTestClass().ifPresent(elements::add);
+    extensionContext.getTestMethod().ifPresent(elements::add);
+
+    elements.forEach(
+        element ->
+            AnnotationSupport.findAnnotation(element, CamundaTestComponents.class)
+                .ifPresent(annotation -> components.addAll(List.of(annotation.value()))));
+
+    return components;
+  }
+
   private ExtensionContext.Store getStore(final ExtensionContext context) {
     return context.getStore(ExtensionContext.Namespace.create(getClass(), context.getUniqueId()));
   }
 
   private CamundaTestContext lookupOrCreate(final ExtensionContext extensionContext) {
-    final var store = getStore(extensionContext);
-
-    return (CamundaTestContext)
-        store.getOrComputeIfAbsent(
-            "camunda-test-context",
-            (key) -> {
-              CamundaTestContext camundaTestContext = new CamundaTestContext(connectorSecrets);
-              camundaTestContext.start(enableConnectors);
-              return camundaTestContext;
-            });
+    if (CamundaTestEnvironmentPool.isParallelExecutionEnabled(
+        extensionContext::getConfigurationParameter)) {
+      // lease an environment exclusively for the test, it is returned when the test is finished
+      final var store = getStore(extensionContext);
+
+      return store
+          .getOrComputeIfAbsent(
+              "camunda-test-context-lease",
+              (key) ->
+                  CamundaTestEnvironmentPool.forConfig(
+                          config, extensionContext::getConfigurationParameter)
+                      .lease(),
+              CamundaTestEnvironmentPool.Lease.class)
+          .getContext();
+    }
+
+    return CamundaTestEnvironmentRegistry.lookupOrCreate(extensionContext, config);
   }
 
   private void injectFields(
@@ -61,12 +120,9 @@ public class CamundaTestListener implements BeforeEachCallback {
         .forEach(
             field -> {
               try {
-                  final var camundaTestContext = lookupOrCreate(context);
-
-                final String zeebeGatewayAddress =
-                    camundaTestContext.getZeebeContainer().getExternalGatewayAddress();
+                final var camundaTestContext = lookupOrCreate(context);
 
-                final ZeebeClient zeebeClient = createZeebeClient(zeebeGatewayAddress);
+                final ZeebeClient zeebeClient = camundaTestContext.getZeebeClient();
 
                 makeAccessible(field).set(testInstance, zeebeClient);
 
@@ -75,27 +131,30 @@ public class CamundaTestListener implements BeforeEachCallback {
               }
             });
 
-      ReflectionUtils.findFields(
-                      testClass,
-                      field -> ReflectionUtils.isNotStatic(field) && field.getType() == CamundaTestContext.class,
-                      ReflectionUtils.HierarchyTraversalMode.TOP_DOWN)
-              .forEach(
-                      field -> {
-                          try {
-                              final var camundaTestContext = lookupOrCreate(context);
-                              makeAccessible(field).set(testInstance, camundaTestContext);
-
-                          } catch (final Throwable t) {
-                              ExceptionUtils.throwAsUncheckedException(t);
-                          }
-                      });
+    ReflectionUtils.findFields(
+            testClass,
+            field ->
+                ReflectionUtils.isNotStatic(field)
+                    && field.getType() == CamundaTestContext.class,
+            ReflectionUtils.HierarchyTraversalMode.TOP_DOWN)
+        .forEach(
+            field -> {
+              try {
+                final var camundaTestContext = lookupOrCreate(context);
+                makeAccessible(field).set(testInstance, camundaTestContext);
+
+              } catch (final Throwable t) {
+                ExceptionUtils.throwAsUncheckedException(t);
+              }
+            });
   }
 
-  private ZeebeClient createZeebeClient(final String gatewayAddress) {
-    return ZeebeClient.newClientBuilder().gatewayAddress(gatewayAddress).usePlaintext().build();
+  public static CamundaTestListener withConnectors(
+      boolean enableConnectors, Map<String, String> connectorSecrets) {
+    return new CamundaTestListener(enableConnectors, connectorSecrets);
   }
 
-  public static CamundaTestListener withConnectors(boolean enableConnectors, Map<String, String> connectorSecrets) {
-        return new CamundaTestListener(enableConnectors, connectorSecrets);
+  public static CamundaTestListener withConfig(final CamundaTestEnvironmentConfig config) {
+    return new CamundaTestListener(config);
   }
 }
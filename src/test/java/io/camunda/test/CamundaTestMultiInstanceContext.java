@@ -1,22 +1,42 @@
 package io.camunda.test;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.DeploymentEvent;
+import io.camunda.zeebe.client.api.response.BrokerInfo;
+import io.camunda.zeebe.client.api.response.PartitionBrokerHealth;
+import io.camunda.zeebe.client.api.response.PartitionInfo;
+import io.camunda.zeebe.model.bpmn.BpmnModelInstance;
 import io.zeebe.containers.ZeebeContainer;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.PostgreSQLContainer;
-import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.containers.wait.strategy.Wait;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.TestcontainersConfiguration;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.List;
 
 public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.CloseableResource {
 
   private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
 
+  private static final int DEFAULT_TENANT_POOL_SIZE = 8;
+  private static final String POSTGRES_IMAGE = "postgres:14.5-alpine";
+
+  private final CamundaTestEnvironmentConfig config;
+  private final boolean reuse;
   private final Network network;
   private final ZeebeContainer zeebeContainer;
   private final ElasticsearchContainer elasticsearchContainer;
@@ -24,78 +44,164 @@ public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.C
   private final PostgreSQLContainer<?> postgreSQLContainer;
   private final GenericContainer<?> keycloakContainer;
   private final GenericContainer<?> identityContainer;
+  private final PostgresSnapshot postgresSnapshot;
+  private final boolean snapshotRestored;
+
+  private final int tenantPoolSize;
+  private final TenantPool tenantPool;
+
+  private final ZeebeClientPool zeebeClientPool;
+  private final DeploymentCache deploymentCache = new DeploymentCache();
+  private final ContainerLogPipeline logPipeline = new ContainerLogPipeline();
+  private final OAuthTokenCache zeebeTokens;
+  private final OAuthTokenCache identityTokens;
 
   public CamundaTestMultiInstanceContext() {
+    this(CamundaTestEnvironmentConfig.defaultConfig(), DEFAULT_TENANT_POOL_SIZE);
+  }
+
+  public CamundaTestMultiInstanceContext(
+      final CamundaTestEnvironmentConfig config, final int tenantPoolSize) {
+    this.config = config;
+    this.tenantPoolSize = tenantPoolSize;
+    final HttpClient httpClient = HttpClient.newHttpClient();
+    tenantPool = new TenantPool(this, httpClient);
 
-    network = Network.newNetwork();
+    // all clients share the tokens, with a single fetch per token lifetime
+    zeebeTokens =
+        new OAuthTokenCache(httpClient, this::getTokenUrl, "zeebe", "zecret", "zeebe-api");
+    identityTokens =
+        new OAuthTokenCache(
+            httpClient,
+            this::getTokenUrl,
+            "zeebe",
+            "zecret",
+            "camunda-identity-resource-server");
+
+    // Testcontainers ignores the reuse flag unless it is enabled in the environment
+    reuse =
+        config.reuseEnabled()
+            && TestcontainersConfiguration.getInstance().environmentSupportsReuse();
+    network =
+        reuse
+            ? new ReusableNetwork("camunda-test-mt-" + config.stackId(), config.stackId())
+            : Network.newNetwork();
 
     elasticsearchContainer = createElasticsearch(network);
     zeebeContainer = createZeebe(network);
 
-    postgreSQLContainer = createPostgres(network);
     keycloakContainer = createKeycloak(network);
     identityContainer = createIdentity(network);
+
+    // the state of reused containers survives anyway
+    postgresSnapshot =
+        config.identitySnapshotEnabled() && !reuse
+            ? new PostgresSnapshot(POSTGRES_IMAGE, List.of(keycloakContainer, identityContainer))
+            : null;
+    snapshotRestored = postgresSnapshot != null && postgresSnapshot.exists();
+    postgreSQLContainer = createPostgres(network);
+
+    if (config.tmpfsSizeMb() > 0) {
+      final TmpfsStorage tmpfs = new TmpfsStorage(config.tmpfsSizeMb());
+      tmpfs.configure(elasticsearchContainer);
+      tmpfs.configure(zeebeContainer);
+      // a tmpfs is not part of a committed image, so the snapshot keeps its data on the disk
+      if (postgresSnapshot == null) {
+        tmpfs.configure(postgreSQLContainer);
+      }
+    }
+
+    // after the Elasticsearch profile, the heap of the preset takes precedence
+    final ResourcePreset preset = config.resourcePreset();
+    preset.applyTo(elasticsearchContainer, "elasticsearch", "ES_JAVA_OPTS");
+    preset.applyTo(zeebeContainer, "zeebe", "JAVA_OPTS");
+    preset.applyTo(postgreSQLContainer, "postgres", null);
+    // JAVA_OPTS would replace the defaults of the Keycloak scripts, the appended heap wins
+    preset.applyTo(keycloakContainer, "keycloak", "JAVA_OPTS_APPEND");
+    preset.applyTo(identityContainer, "identity", "JAVA_OPTS");
+
+    if (reuse) {
+      List.<GenericContainer<?>>of(
+              elasticsearchContainer,
+              zeebeContainer,
+              postgreSQLContainer,
+              keycloakContainer,
+              identityContainer)
+          .forEach(
+              container ->
+                  container
+                      .withReuse(true)
+                      .withLabel(ReusableNetwork.STACK_LABEL, config.stackId()));
+    }
+
+    zeebeClientPool = new ZeebeClientPool(zeebeContainer::getExternalGatewayAddress);
   }
 
   private ElasticsearchContainer createElasticsearch(final Network network) {
-    return new ElasticsearchContainer(DockerImageName.parse("elasticsearch:8.13.0"))
-        .withEnv("xpack.security.enabled", "false")
-        .withNetwork(network)
-        .withNetworkAliases("elasticsearch");
+    final var container =
+        new ElasticsearchContainer(DockerImageName.parse(config.elasticsearchImage()))
+            .withEnv("xpack.security.enabled", "false")
+            .withNetwork(network)
+            .withNetworkAliases("elasticsearch");
+    return config.elasticsearchProfile().configure(container);
   }
 
   private ZeebeContainer createZeebe(final Network network) {
-    return new ZeebeContainer(DockerImageName.parse("camunda/zeebe:SNAPSHOT"))
-        .withNetwork(network)
-        .withNetworkAliases("zeebe")
-        .withAdditionalExposedPort(8080)
-        .withEnv(
-            "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_CLASSNAME",
-            "io.camunda.zeebe.exporter.ElasticsearchExporter")
-        .withEnv("ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_URL", "elasticsearch:9200")
-        .withEnv("ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_BULK_SIZE", "1")
-        .withEnv("ZEEBE_BROKER_GATEWAY_MULTITENANCY_ENABLED", "true")
-        .withEnv("ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_MODE", "identity")
-        .withEnv(
-            "ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_IDENTITY_ISSUERBACKENDURL",
-            "http://keycloak:8080/auth/realms/camunda-platform")
-        .withEnv("ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_IDENTITY_AUDIENCE", "zeebe-api")
-        .withEnv(
-            "ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_IDENTITY_BASEURL", "http://identity:8084")
-        .withLogConsumer(new Slf4jLogConsumer(LOGGER))
-        //        .withTopologyCheck(
-        //            new ZeebeTopologyWaitStrategy()
-        //                .forBuilder(
-        //                    () -> {
-        //                      final String keycloakAddress =
-        //                          keycloakContainer.getHost() + ":" +
-        // keycloakContainer.getMappedPort(8080);
-        //
-        //                      return ZeebeClient.newClientBuilder()
-        //                          .usePlaintext()
-        //                          .credentialsProvider(
-        //                              CredentialsProvider.newCredentialsProviderBuilder()
-        //                                  .clientId("zeebe")
-        //                                  .clientSecret("zecret")
-        //                                  .audience("zeebe-api")
-        //                                  .authorizationServerUrl(
-        //                                      "http://"
-        //                                          + keycloakAddress
-        //                                          +
-        // "/auth/realms/camunda-platform/protocol/openid-connect/token")
-        //                                  .build());
-        //                    })
-        //                .forBrokersCount(1))
-        .withoutTopologyCheck();
+    final var container =
+        new ZeebeContainer(DockerImageName.parse(config.zeebeImage()))
+            .withNetwork(network)
+            .withNetworkAliases("zeebe")
+            .withAdditionalExposedPort(8080)
+            .withEnv(
+                "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_CLASSNAME",
+                "io.camunda.zeebe.exporter.ElasticsearchExporter")
+            .withEnv("ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_URL", "elasticsearch:9200")
+            .withEnv(
+                "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_BULK_SIZE",
+                String.valueOf(config.exportMode().getBulkSize()))
+            .withEnv(
+                "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_BULK_DELAY",
+                String.valueOf(config.exportMode().getBulkDelaySeconds()))
+            .withEnv("ZEEBE_BROKER_GATEWAY_MULTITENANCY_ENABLED", "true")
+            .withEnv("ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_MODE", "identity")
+            .withEnv(
+                "ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_IDENTITY_ISSUERBACKENDURL",
+                "http://keycloak:8080/auth/realms/camunda-platform")
+            .withEnv("ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_IDENTITY_AUDIENCE", "zeebe-api")
+            .withEnv(
+                "ZEEBE_BROKER_GATEWAY_SECURITY_AUTHENTICATION_IDENTITY_BASEURL",
+                "http://identity:8084")
+            .withLogConsumer(logPipeline.consumer("zeebe"))
+            // the topology is checked after the container is started, with an authenticated client
+            .withoutTopologyCheck();
+
+    config
+        .elasticsearchProfile()
+        .configureIndices(container, "ZEEBE_BROKER_EXPORTERS_ELASTICSEARCH_ARGS_INDEX_");
+    return container;
   }
 
   private PostgreSQLContainer<?> createPostgres(final Network network) {
-    return new PostgreSQLContainer<>(DockerImageName.parse("postgres:14.5-alpine"))
-        .withNetwork(network)
-        .withNetworkAliases("postgres")
-        .withDatabaseName("bitnami_keycloak")
-        .withUsername("bn_keycloak")
-        .withPassword("#3]O?4RGj)DE7Z!9SA5");
+    final DockerImageName image =
+        snapshotRestored ? postgresSnapshot.getImageName() : DockerImageName.parse(POSTGRES_IMAGE);
+    final var container =
+        new PostgreSQLContainer<>(image)
+            .withNetwork(network)
+            .withNetworkAliases("postgres")
+            .withDatabaseName("bitnami_keycloak")
+            .withUsername("bn_keycloak")
+            .withPassword("#3]O?4RGj)DE7Z!9SA5");
+
+    if (postgresSnapshot != null) {
+      container.withEnv("PGDATA", PostgresSnapshot.DATA_DIRECTORY);
+    }
+    if (snapshotRestored) {
+      // an initialized database starts once, without the restart after the init scripts
+      container.waitingFor(
+          Wait.forLogMessage(".*database system is ready to accept connections.*\\s", 1)
+              .withStartupTimeout(Duration.ofMinutes(1)));
+    }
+    return container;
   }
 
   private GenericContainer<?> createKeycloak(final Network network) {
@@ -107,7 +213,11 @@ public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.C
             .withEnv("KEYCLOAK_DATABASE_HOST", "postgres")
             .withEnv("KEYCLOAK_DATABASE_PASSWORD", "#3]O?4RGj)DE7Z!9SA5")
             .withEnv("KEYCLOAK_ADMIN_USER", "admin")
-            .withEnv("KEYCLOAK_ADMIN_PASSWORD", "admin");
+            .withEnv("KEYCLOAK_ADMIN_PASSWORD", "admin")
+            .waitingFor(
+                Wait.forHttp("/auth/realms/master")
+                    .forPort(8080)
+                    .withStartupTimeout(Duration.ofMinutes(3)));
     container.addExposedPort(8080); // 18080
     return container;
   }
@@ -117,9 +227,10 @@ public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.C
         new GenericContainer<>(DockerImageName.parse("camunda/identity:SNAPSHOT"))
             .withNetwork(network)
             .withNetworkAliases("identity")
-            // .withLogConsumer(new Slf4jLogConsumer(LOGGER))
+            // .withLogConsumer(logPipeline.consumer("identity"))
             .withEnv("SERVER_PORT", "8084")
-            .withEnv("IDENTITY_RETRY_DELAY_SECONDS", "30")
+            // Identity retries until Keycloak is started
+            .withEnv("IDENTITY_RETRY_DELAY_SECONDS", "2")
             .withEnv("KEYCLOAK_URL", "http://keycloak:8080/auth")
             .withEnv(
                 "IDENTITY_AUTH_PROVIDER_BACKEND_URL",
@@ -174,39 +285,120 @@ public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.C
             .withEnv("KEYCLOAK_CLIENTS_0_PERMISSIONS_4_DEFINITION", "read:*")
             .withEnv("KEYCLOAK_CLIENTS_0_PERMISSIONS_5_RESOURCE_SERVER_ID", "operate-api")
             .withEnv("KEYCLOAK_CLIENTS_0_PERMISSIONS_5_DEFINITION", "read:*")
+            // allow the client to provision the tenants of the tenant pool
+            .withEnv(
+                "KEYCLOAK_CLIENTS_0_PERMISSIONS_6_RESOURCE_SERVER_ID",
+                "camunda-identity-resource-server")
+            .withEnv("KEYCLOAK_CLIENTS_0_PERMISSIONS_6_DEFINITION", "write")
+            .withEnv(
+                "KEYCLOAK_CLIENTS_0_PERMISSIONS_7_RESOURCE_SERVER_ID",
+                "camunda-identity-resource-server")
+            .withEnv("KEYCLOAK_CLIENTS_0_PERMISSIONS_7_DEFINITION", "read")
             .withEnv("MULTITENANCY_ENABLED", "true")
-            .withEnv("RESOURCE_PERMISSIONS_ENABLED", "false");
+            .withEnv("RESOURCE_PERMISSIONS_ENABLED", "false")
+            .waitingFor(
+                new HttpReadinessWaitStrategy("identity", 8082, "/actuator/health/readiness"));
     container.addExposedPort(8084);
+    container.addExposedPort(8082); // management
     return container;
   }
 
-  public void start() {
-    LOGGER.info("Starting containers...");
+  public ContainerStartupGraph.StartupReport start() {
+    LOGGER.info(
+        "Starting containers{}...",
+        snapshotRestored
+            ? " from the Postgres snapshot " + postgresSnapshot.getImageName().getVersionPart()
+            : "");
+
+    final ContainerStartupGraph.StartupReport startupReport =
+        new ContainerStartupGraph()
+            .add("postgres", postgreSQLContainer)
+            .add("keycloak", keycloakContainer, "postgres")
+            .add("identity", identityContainer, "keycloak")
+            .add("keycloak-realm", this::awaitKeycloakRealm, "identity")
+            .add("elasticsearch", elasticsearchContainer)
+            .add("zeebe", zeebeContainer)
+            .add("zeebe-topology", this::awaitZeebeTopology, "zeebe", "keycloak-realm")
+            .add("tenants", () -> tenantPool.provision(tenantPoolSize), "keycloak-realm")
+            .start();
 
-    //    final Stream<GenericContainer<?>> containers =
-    //        Stream.of(
-    //            elasticsearchContainer,
-    //            zeebeContainer,
-    //            postgreSQLContainer,
-    //            keycloakContainer,
-    //            identityContainer);
-    //
-    //    containers.parallel().forEach(GenericContainer::start);
+    LOGGER.info("...Container started");
 
-    postgreSQLContainer.start();
-    keycloakContainer.start();
-    identityContainer.start();
+    if (postgresSnapshot != null && !snapshotRestored) {
+      postgresSnapshot.capture(postgreSQLContainer);
+    }
 
-    elasticsearchContainer.start();
-    zeebeContainer.start();
+    config
+        .elasticsearchProfile()
+        .applyIndexSettings(
+            HttpClient.newHttpClient(), elasticsearchContainer.getHttpHostAddress());
 
-    LOGGER.info("...Container started");
+    if (reuse) {
+      // the containers may be attached from a previous run, with the state of its tests
+      LOGGER.info("Wipe the state of the reusable containers before the first test");
+      final var stateCleaner =
+          new EnvironmentStateCleaner(
+              HttpClient.newHttpClient(), elasticsearchContainer.getHttpHostAddress());
+      stateCleaner.cancelActiveProcessInstances(getZeebeClient(null), null);
+      stateCleaner.deleteData();
+    }
+    return startupReport;
+  }
+
+  private void awaitKeycloakRealm() {
+    // the realm is created by Identity on startup
+    final HttpClient httpClient = HttpClient.newHttpClient();
+    final HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create("http://" + getKeycloakAddress() + "/auth/realms/camunda-platform"))
+            .GET()
+            .build();
+
+    Awaitility.await("Keycloak realm 'camunda-platform' is available")
+        .atMost(Duration.ofMinutes(2))
+        .pollInterval(Duration.ofMillis(200))
+        .ignoreExceptions()
+        .untilAsserted(
+            () -> {
+              final HttpResponse<Void> response =
+                  httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+              assertThat(response.statusCode()).isEqualTo(200);
+            });
+  }
+
+  private void awaitZeebeTopology() {
+    final ZeebeClient zeebeClient = getZeebeClient(null);
+
+    Awaitility.await("Zeebe topology is complete")
+        .atMost(Duration.ofMinutes(1))
+        .pollInterval(Duration.ofMillis(200))
+        .ignoreExceptions()
+        .untilAsserted(
+            () ->
+                assertThat(zeebeClient.newTopologyRequest().send().join().getBrokers())
+                    .flatExtracting(BrokerInfo::getPartitions)
+                    .extracting(PartitionInfo::getHealth)
+                    .containsOnly(PartitionBrokerHealth.HEALTHY)
+                    .isNotEmpty());
   }
 
   @Override
   public void close() throws Throwable {
+    LOGGER.info("Deployments of the environment: {}", deploymentCache.getMetrics());
     LOGGER.info("Closing containers...");
 
+    zeebeClientPool.close();
+    logPipeline.close();
+    LOGGER.info(
+        "Fetched {} Zeebe and {} Identity access tokens",
+        zeebeTokens.getFetches(),
+        identityTokens.getFetches());
+
+    if (reuse) {
+      LOGGER.info("...Keep the containers running for the next run.");
+      return;
+    }
+
     zeebeContainer.shutdownGracefully(Duration.ofSeconds(10));
     elasticsearchContainer.stop();
 
@@ -219,6 +411,11 @@ public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.C
     LOGGER.info("...Containers closed.");
   }
 
+  /** Returns the logs of the containers. The stack is shared, the logs contain all tests. */
+  public ContainerLogPipeline getLogPipeline() {
+    return logPipeline;
+  }
+
   public ZeebeContainer getZeebeContainer() {
     return zeebeContainer;
   }
@@ -234,4 +431,48 @@ public class CamundaTestMultiInstanceContext implements ExtensionContext.Store.C
   public GenericContainer<?> getKeycloakContainer() {
     return keycloakContainer;
   }
+
+  public String getIdentityAddress() {
+    return identityContainer.getHost() + ":" + identityContainer.getMappedPort(8084);
+  }
+
+  public TenantPool getTenantPool() {
+    return tenantPool;
+  }
+
+  /**
+   * Returns the shared client that is authenticated and uses the tenant by default, if it is set.
+   * The client is closed when the context is closed.
+   */
+  public ZeebeClient getZeebeClient(final String tenantId) {
+    return zeebeClientPool.getClient(tenantId, zeebeTokens);
+  }
+
+  public ZeebeClientPool.Metrics getZeebeClientMetrics() {
+    return zeebeClientPool.getMetrics();
+  }
+
+  /**
+   * Deploys the model for the default tenant of the client, unless an equal model is already
+   * deployed for the tenant and is still the latest version of its process.
+   */
+  public DeploymentEvent deploy(
+      final ZeebeClient zeebeClient, final BpmnModelInstance model, final String resourceName) {
+    return deploymentCache.deploy(zeebeClient, model, resourceName);
+  }
+
+  /** Returns an access token for the API of Identity, e.g. to manage the tenants. */
+  public String getIdentityToken() {
+    return identityTokens.getToken();
+  }
+
+  private String getTokenUrl() {
+    return "http://"
+        + getKeycloakAddress()
+        + "/auth/realms/camunda-platform/protocol/openid-connect/token";
+  }
+
+  public String getKeycloakAddress() {
+    return keycloakContainer.getHost() + ":" + keycloakContainer.getMappedPort(8080);
+  }
 }
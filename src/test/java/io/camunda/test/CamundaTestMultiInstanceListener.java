@@ -1,18 +1,15 @@
 package io.camunda.test;
 
-import io.camunda.zeebe.client.CredentialsProvider;
 import io.camunda.zeebe.client.ZeebeClient;
+import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.platform.commons.util.ExceptionUtils;
 import org.junit.platform.commons.util.ReflectionUtils;
 
-import java.lang.reflect.Method;
-import java.util.List;
-
 import static org.junit.platform.commons.util.ReflectionUtils.makeAccessible;
 
-public class CamundaTestMultiInstanceListener implements BeforeEachCallback {
+public class CamundaTestMultiInstanceListener implements BeforeEachCallback, AfterEachCallback {
 
   @Override
   public void beforeEach(ExtensionContext extensionContext) throws Exception {
@@ -22,12 +19,23 @@ public class CamundaTestMultiInstanceListener implements BeforeEachCallback {
         .forEach(instance -> injectFields(extensionContext, instance, instance.getClass()));
   }
 
+  @Override
+  public void afterEach(final ExtensionContext extensionContext) {
+    if (extensionContext.getExecutionException().isPresent()) {
+      lookupOrCreate(extensionContext)
+          .getLogPipeline()
+          .dump(CamundaTestListener.getLogsDirectory(extensionContext));
+    }
+  }
+
   private ExtensionContext.Store getStore(final ExtensionContext context) {
     return context.getStore(ExtensionContext.Namespace.create(getClass(), context.getUniqueId()));
   }
 
   private CamundaTestMultiInstanceContext lookupOrCreate(final ExtensionContext extensionContext) {
-    final var store = getStore(extensionContext);
+    // the stack is shared by all tests, every test is isolated by its own tenant
+    final var store =
+        extensionContext.getRoot().getStore(ExtensionContext.Namespace.create(getClass()));
 
     return (CamundaTestMultiInstanceContext)
         store.getOrComputeIfAbsent(
@@ -50,18 +58,9 @@ public class CamundaTestMultiInstanceListener implements BeforeEachCallback {
               try {
                 final var camundaTestContext = lookupOrCreate(context);
 
-                final String zeebeGatewayAddress =
-                    camundaTestContext.getZeebeContainer().getExternalGatewayAddress();
-
-                final String keycloakAddress =
-                    camundaTestContext.getKeycloakContainer().getHost()
-                        + ":"
-                        + camundaTestContext.getKeycloakContainer().getMappedPort(8080);
+                final String testTenantId = getTenantId(context, camundaTestContext);
 
-                final String testTenantId = getTenantId(context);
-
-                final ZeebeClient zeebeClient =
-                    createZeebeClient(zeebeGatewayAddress, keycloakAddress, testTenantId);
+                final ZeebeClient zeebeClient = camundaTestContext.getZeebeClient(testTenantId);
 
                 makeAccessible(field).set(testInstance, zeebeClient);
 
@@ -69,34 +68,33 @@ public class CamundaTestMultiInstanceListener implements BeforeEachCallback {
                 ExceptionUtils.throwAsUncheckedException(t);
               }
             });
-  }
-
-  private static String getTenantId(ExtensionContext context) {
-    final String testClassName = context.getTestClass().map(Class::getSimpleName).orElse("?");
 
-    final String testMethodName = context.getTestMethod().map(Method::getName).orElse("?");
+    ReflectionUtils.findFields(
+            testClass,
+            field ->
+                ReflectionUtils.isNotStatic(field)
+                    && field.getType() == CamundaTestMultiInstanceContext.class,
+            ReflectionUtils.HierarchyTraversalMode.TOP_DOWN)
+        .forEach(
+            field -> {
+              try {
+                final var camundaTestContext = lookupOrCreate(context);
+                makeAccessible(field).set(testInstance, camundaTestContext);
 
-    final String combinedName = testClassName + "_" + testMethodName;
-    return combinedName.substring(0, Math.min(30, combinedName.length()));
+              } catch (final Throwable t) {
+                ExceptionUtils.throwAsUncheckedException(t);
+              }
+            });
   }
 
-  private ZeebeClient createZeebeClient(
-      final String gatewayAddress, final String keycloakAddress, final String tenantId) {
-    return ZeebeClient.newClientBuilder()
-        .gatewayAddress(gatewayAddress)
-        .usePlaintext()
-        .credentialsProvider(
-            CredentialsProvider.newCredentialsProviderBuilder()
-                .clientId("zeebe")
-                .clientSecret("zecret")
-                .audience("zeebe-api")
-                .authorizationServerUrl(
-                    "http://"
-                        + keycloakAddress
-                        + "/auth/realms/camunda-platform/protocol/openid-connect/token")
-                .build())
-        .defaultTenantId(tenantId)
-        .defaultJobWorkerTenantIds(List.of(tenantId))
-        .build();
+  private String getTenantId(
+      final ExtensionContext context, final CamundaTestMultiInstanceContext camundaTestContext) {
+    // the tenant is returned to the pool when the test is finished
+    return getStore(context)
+        .getOrComputeIfAbsent(
+            "tenant-lease",
+            (key) -> camundaTestContext.getTenantPool().lease(),
+            TenantPool.Lease.class)
+        .getTenantId();
   }
 }
@@ -0,0 +1,71 @@
+package io.camunda.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the resources for deployments once per JVM from the classpath, and keeps the prepared
+ * bytes. By default, the icons of element templates are removed from BPMN resources. The icons are
+ * only used by the modeler, but are inlined as base64 images and make up most of the payload.
+ */
+public final class ClasspathResourceCache {
+
+  /** Set to {@code false} to deploy the resources as they are on the classpath. */
+  public static final String STRIP_TEMPLATE_ICONS_PROPERTY =
+      "camunda.test.deployment.strip-template-icons";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final Pattern TEMPLATE_ICON =
+      Pattern.compile("\\s+zeebe:modelerTemplateIcon=\"[^\"]*\"");
+
+  private static final Map<String, PreparedResource> RESOURCES = new ConcurrentHashMap<>();
+
+  private ClasspathResourceCache() {}
+
+  /** Returns the prepared resource, and reads it from the classpath on the first call. */
+  public static PreparedResource getResource(final String resourceName) {
+    return RESOURCES.computeIfAbsent(resourceName, ClasspathResourceCache::readResource);
+  }
+
+  private static PreparedResource readResource(final String resourceName) {
+    final byte[] original;
+    try (final InputStream resource =
+        ClasspathResourceCache.class.getClassLoader().getResourceAsStream(resourceName)) {
+      if (resource == null) {
+        throw new IllegalArgumentException("Resource '%s' not found".formatted(resourceName));
+      }
+      original = resource.readAllBytes();
+
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final boolean stripTemplateIcons =
+        Boolean.parseBoolean(System.getProperty(STRIP_TEMPLATE_ICONS_PROPERTY, "true"));
+
+    if (!stripTemplateIcons || !resourceName.endsWith(".bpmn")) {
+      return new PreparedResource(resourceName, original, original.length);
+    }
+
+    final String xml = new String(original, StandardCharsets.UTF_8);
+    final byte[] prepared =
+        TEMPLATE_ICON.matcher(xml).replaceAll("").getBytes(StandardCharsets.UTF_8);
+
+    LOGGER.info(
+        "Prepared resource '{}' for deployment: {} bytes instead of {} bytes",
+        resourceName,
+        prepared.length,
+        original.length);
+    return new PreparedResource(resourceName, prepared, original.length);
+  }
+
+  public record PreparedResource(String name, byte[] content, int originalSize) {}
+}
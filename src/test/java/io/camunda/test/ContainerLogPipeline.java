@@ -0,0 +1,247 @@
+package io.camunda.test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.testcontainers.containers.output.OutputFrame;
+
+/**
+ * Receives the logs of the containers without blocking the threads that read them. All lines are
+ * kept in a bounded buffer per container, and written to files if a test fails. Only the lines with
+ * the configured level or higher are forwarded to the logger of the tests, limited per container
+ * and second, through a bounded queue that is drained by a background thread. Lines that don't fit
+ * are dropped and counted.
+ */
+public final class ContainerLogPipeline implements AutoCloseable {
+
+  /** The minimum level of the forwarded lines, e.g. {@code -Dcamunda.test.logs.level=info}. */
+  public static final String LEVEL_PROPERTY = "camunda.test.logs.level";
+
+  /** The maximum number of forwarded lines per container and second. */
+  public static final String RATE_PROPERTY = "camunda.test.logs.rate";
+
+  /** The directory of the logs of the failed tests. */
+  public static final Path FAILED_TESTS_DIRECTORY = Path.of("target", "camunda-test-logs");
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final int QUEUE_CAPACITY = 10_000;
+  private static final int BUFFER_CAPACITY = 20_000;
+  private static final int LEVEL_SEARCH_LENGTH = 120;
+
+  private static final Pattern LEVEL =
+      Pattern.compile("\\b(TRACE|DEBUG|INFO|WARN|WARNING|ERROR|FATAL)\\b");
+
+  private final Level level;
+  private final int linesPerSecond;
+
+  private final Map<String, ContainerLog> containerLogs = new ConcurrentHashMap<>();
+  private final BlockingQueue<LogLine> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+  private final Thread writer;
+  private volatile boolean running = true;
+
+  private final LongAdder lines = new LongAdder();
+  private final LongAdder forwarded = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder truncated = new LongAdder();
+  private final LongAdder receiveNanos = new LongAdder();
+  private final LongAdder writeNanos = new LongAdder();
+
+  public ContainerLogPipeline() {
+    this(
+        Level.valueOf(System.getProperty(LEVEL_PROPERTY, "warn").trim().toUpperCase(Locale.ROOT)),
+        Integer.getInteger(RATE_PROPERTY, 100));
+  }
+
+  public ContainerLogPipeline(final Level level, final int linesPerSecond) {
+    this.level = level;
+    this.linesPerSecond = linesPerSecond;
+
+    writer = new Thread(this::writeLines, "camunda-test-logs");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /** Returns the log consumer for the container, see {@code GenericContainer#withLogConsumer}. */
+  public Consumer<OutputFrame> consumer(final String containerName) {
+    final ContainerLog containerLog =
+        containerLogs.computeIfAbsent(containerName, ContainerLog::new);
+    return frame -> receive(containerLog, frame);
+  }
+
+  private void receive(final ContainerLog containerLog, final OutputFrame frame) {
+    if (frame.getType() == OutputFrame.OutputType.END) {
+      return;
+    }
+
+    final long start = System.nanoTime();
+    final String line = frame.getUtf8StringWithoutLineEnding();
+    lines.increment();
+
+    final Level lineLevel = containerLog.append(line, frame.getType());
+    if (lineLevel.toInt() >= level.toInt()) {
+      if (running
+          && containerLog.tryForward(linesPerSecond)
+          && queue.offer(new LogLine(containerLog.name, lineLevel, line))) {
+        forwarded.increment();
+      } else {
+        dropped.increment();
+      }
+    }
+    receiveNanos.add(System.nanoTime() - start);
+  }
+
+  private void writeLines() {
+    while (running || !queue.isEmpty()) {
+      try {
+        final LogLine line = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (line != null) {
+          final long start = System.nanoTime();
+          LOGGER.atLevel(line.level()).log("[{}] {}", line.container(), line.line());
+          writeNanos.add(System.nanoTime() - start);
+        }
+      } catch (final InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /** Forgets the buffered lines, so that a dump contains only the lines of the next test. */
+  public void startTest() {
+    containerLogs.values().forEach(ContainerLog::clear);
+  }
+
+  /** Writes the buffered lines of every container to a file in the directory. */
+  public void dump(final Path directory) {
+    try {
+      Files.createDirectories(directory);
+      for (final ContainerLog containerLog : containerLogs.values()) {
+        Files.write(
+            directory.resolve(containerLog.name + ".log"),
+            containerLog.snapshot(),
+            StandardCharsets.UTF_8);
+      }
+      LOGGER.info("Wrote the container logs to {}", directory.toAbsolutePath());
+
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public Metrics getMetrics() {
+    return new Metrics(
+        lines.sum(),
+        forwarded.sum(),
+        dropped.sum(),
+        truncated.sum(),
+        Duration.ofNanos(receiveNanos.sum()),
+        Duration.ofNanos(writeNanos.sum()));
+  }
+
+  /** Writes the queued lines and stops the background thread. */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      writer.join(Duration.ofSeconds(5));
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    LOGGER.info("Container logs: {}", getMetrics());
+  }
+
+  private final class ContainerLog {
+
+    private final String name;
+    private final ArrayDeque<String> buffer = new ArrayDeque<>();
+    private final Matcher levelMatcher = LEVEL.matcher("");
+
+    // a line without a level, e.g. of a stack trace, continues the previous line
+    private Level lastLevel = Level.INFO;
+
+    private long window;
+    private int windowCount;
+
+    private ContainerLog(final String name) {
+      this.name = name;
+    }
+
+    private synchronized Level append(final String line, final OutputFrame.OutputType type) {
+      if (buffer.size() == BUFFER_CAPACITY) {
+        buffer.removeFirst();
+        truncated.increment();
+      }
+      buffer.addLast(line);
+
+      levelMatcher.reset(line).region(0, Math.min(line.length(), LEVEL_SEARCH_LENGTH));
+      if (levelMatcher.find()) {
+        lastLevel = levelOf(levelMatcher.group(1));
+      } else if (type == OutputFrame.OutputType.STDERR && !line.startsWith("\t")) {
+        lastLevel = Level.WARN;
+      }
+      return lastLevel;
+    }
+
+    private synchronized boolean tryForward(final int limit) {
+      final long second = System.nanoTime() / 1_000_000_000L;
+      if (second != window) {
+        window = second;
+        windowCount = 0;
+      }
+      return windowCount++ < limit;
+    }
+
+    private synchronized void clear() {
+      buffer.clear();
+    }
+
+    private synchronized List<String> snapshot() {
+      return new ArrayList<>(buffer);
+    }
+
+    private static Level levelOf(final String level) {
+      return switch (level) {
+        case "TRACE" -> Level.TRACE;
+        case "DEBUG" -> Level.DEBUG;
+        case "INFO" -> Level.INFO;
+        case "WARN", "WARNING" -> Level.WARN;
+        default -> Level.ERROR;
+      };
+    }
+  }
+
+  private record LogLine(String container, Level level, String line) {}
+
+  /**
+   * @param dropped the lines that were not forwarded because of the rate limit or a full queue
+   * @param truncated the lines that were removed from the buffers because they were full
+   * @param receiveTime the time that the threads which read the logs spent in the pipeline
+   * @param writeTime the time that the background thread spent writing to the logger
+   */
+  public record Metrics(
+      long lines,
+      long forwarded,
+      long dropped,
+      long truncated,
+      Duration receiveTime,
+      Duration writeTime) {}
+}
@@ -0,0 +1,183 @@
+package io.camunda.test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Starts a set of nodes (usually containers) in parallel, respecting their declared dependencies.
+ * Every node starts as soon as all of its dependencies are started.
+ */
+public class ContainerStartupGraph {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+  public ContainerStartupGraph add(
+      final String name, final Startable startable, final String... dependsOn) {
+    return add(name, (Runnable) startable::start, dependsOn);
+  }
+
+  public ContainerStartupGraph add(
+      final String name, final Runnable start, final String... dependsOn) {
+    if (nodes.containsKey(name)) {
+      throw new IllegalArgumentException("Node '%s' is already added".formatted(name));
+    }
+    nodes.put(name, new Node(name, start, List.of(dependsOn)));
+    return this;
+  }
+
+  public boolean isEmpty() {
+    return nodes.isEmpty();
+  }
+
+  public StartupReport start() {
+    // dependencies that are not part of the graph are considered as already started
+    nodes.values().forEach(node -> node.dependsOn.removeIf(name -> !nodes.containsKey(name)));
+    verifyNoCycles();
+
+    final Instant graphStart = Instant.now();
+    final Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+
+    try (final ExecutorService executor = Executors.newCachedThreadPool()) {
+      nodes.values().forEach(node -> schedule(node, futures, executor, graphStart));
+
+      CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw e;
+    }
+
+    final StartupReport report =
+        new StartupReport(Duration.between(graphStart, Instant.now()), timings());
+    LOGGER.info("Startup took {}, critical path: {}", report.total(), report.formatCriticalPath());
+    return report;
+  }
+
+  private CompletableFuture<Void> schedule(
+      final Node node,
+      final Map<String, CompletableFuture<Void>> futures,
+      final ExecutorService executor,
+      final Instant graphStart) {
+    final CompletableFuture<Void> existing = futures.get(node.name);
+    if (existing != null) {
+      return existing;
+    }
+
+    final CompletableFuture<?>[] dependencies =
+        node.dependsOn.stream()
+            .map(dependency -> schedule(nodes.get(dependency), futures, executor, graphStart))
+            .toArray(CompletableFuture[]::new);
+
+    final CompletableFuture<Void> future =
+        CompletableFuture.allOf(dependencies)
+            .thenRunAsync(
+                () -> {
+                  node.startedAt = Duration.between(graphStart, Instant.now());
+                  LOGGER.debug("Starting '{}'", node.name);
+                  node.start.run();
+                  node.finishedAt = Duration.between(graphStart, Instant.now());
+                  LOGGER.debug(
+                      "Started '{}' in {}", node.name, node.finishedAt.minus(node.startedAt));
+                },
+                executor);
+    futures.put(node.name, future);
+    return future;
+  }
+
+  private void verifyNoCycles() {
+    final Map<String, Boolean> visiting = new LinkedHashMap<>();
+    nodes.keySet().forEach(name -> visit(name, visiting));
+  }
+
+  private void visit(final String name, final Map<String, Boolean> visiting) {
+    final Boolean state = visiting.get(name);
+    if (Boolean.TRUE.equals(state)) {
+      throw new IllegalStateException(
+          "Cyclic dependency between %s".formatted(visiting.keySet()));
+    } else if (state == null) {
+      visiting.put(name, true);
+      nodes.get(name).dependsOn.forEach(dependency -> visit(dependency, visiting));
+      visiting.put(name, false);
+    }
+  }
+
+  private List<NodeTiming> timings() {
+    return nodes.values().stream()
+        .map(
+            node ->
+                new NodeTiming(
+                    node.name, node.startedAt, node.finishedAt, List.copyOf(node.dependsOn)))
+        .toList();
+  }
+
+  private static final class Node {
+    private final String name;
+    private final Runnable start;
+    private final List<String> dependsOn;
+    private volatile Duration startedAt = Duration.ZERO;
+    private volatile Duration finishedAt = Duration.ZERO;
+
+    private Node(final String name, final Runnable start, final List<String> dependsOn) {
+      this.name = name;
+      this.start = start;
+      this.dependsOn = new ArrayList<>(dependsOn);
+    }
+  }
+
+  public record NodeTiming(
+      String name, Duration startedAt, Duration finishedAt, List<String> dependsOn) {
+
+    public Duration duration() {
+      return finishedAt.minus(startedAt);
+    }
+  }
+
+  public record StartupReport(Duration total, List<NodeTiming> timings) {
+
+    /** The chain of nodes that determined the total startup time. */
+    public List<NodeTiming> criticalPath() {
+      final Map<String, NodeTiming> byName =
+          timings.stream().collect(Collectors.toMap(NodeTiming::name, timing -> timing));
+
+      final List<NodeTiming> path = new ArrayList<>();
+      NodeTiming current =
+          timings.stream().max(Comparator.comparing(NodeTiming::finishedAt)).orElse(null);
+
+      while (current != null) {
+        path.add(current);
+        current =
+            current.dependsOn().stream()
+                .map(byName::get)
+                .max(Comparator.comparing(NodeTiming::finishedAt))
+                .orElse(null);
+      }
+
+      Collections.reverse(path);
+      return path;
+    }
+
+    public String formatCriticalPath() {
+      return criticalPath().stream()
+          .map(timing -> "%s (%s)".formatted(timing.name(), timing.duration()))
+          .collect(Collectors.joining(" -> "));
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package io.camunda.test;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.response.DeploymentEvent;
+import io.camunda.zeebe.client.api.response.Process;
+import io.camunda.zeebe.model.bpmn.Bpmn;
+import io.camunda.zeebe.model.bpmn.BpmnModelInstance;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the deployments of an environment by the content hash of the resource and the tenant.
+ * A resource that is already deployed is not deployed again, as long as its processes are still
+ * the latest versions. Otherwise, a test that creates instances of the latest version would run a
+ * different model.
+ */
+public class DeploymentCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final String DEFAULT_TENANT = "<default>";
+
+  // the model builder generates ids of the type and a random UUID, e.g. "sequenceFlow_<uuid>",
+  // that are referenced in attributes and in the incoming and outgoing elements
+  private static final Pattern GENERATED_ID =
+      Pattern.compile(
+          "(?<=[\">])\\w+_[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}(?=[\"<])");
+
+  private final Map<DeploymentKey, DeploymentEvent> deployments = new HashMap<>();
+  private final Map<ProcessKey, String> latestHashes = new HashMap<>();
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong deployTimeNanos = new AtomicLong();
+
+  /**
+   * Deploys the model with the client, if it is not deployed yet for the default tenant of the
+   * client. The hash ignores the generated ids of the model, so that equal models are deployed
+   * once. The model is deployed as it is.
+   */
+  public DeploymentEvent deploy(
+      final ZeebeClient client, final BpmnModelInstance model, final String resourceName) {
+    final String xml = Bpmn.convertToString(model);
+    return deploy(
+        client,
+        resourceName,
+        xml.getBytes(StandardCharsets.UTF_8),
+        normalizeGeneratedIds(xml).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Deploys the prepared classpath resource with the client, if it is not deployed yet. */
+  public DeploymentEvent deploy(
+      final ZeebeClient client, final ClasspathResourceCache.PreparedResource resource) {
+    return deploy(client, resource.name(), resource.content());
+  }
+
+  /** Deploys the resource with the client, if it is not deployed yet for the tenant. */
+  public DeploymentEvent deploy(
+      final ZeebeClient client, final String resourceName, final byte[] resource) {
+    return deploy(client, resourceName, resource, resource);
+  }
+
+  private synchronized DeploymentEvent deploy(
+      final ZeebeClient client,
+      final String resourceName,
+      final byte[] resource,
+      final byte[] hashedContent) {
+    final String tenantId = getTenantId(client);
+    final String hash = hash(resourceName, hashedContent);
+    final DeploymentKey key = new DeploymentKey(tenantId, hash);
+
+    final DeploymentEvent cached = deployments.get(key);
+    if (cached != null && isLatest(cached, tenantId, hash)) {
+      hits.incrementAndGet();
+      return cached;
+    }
+
+    misses.incrementAndGet();
+    final Instant start = Instant.now();
+    final DeploymentEvent deployment =
+        client.newDeployResourceCommand().addResourceBytes(resource, resourceName).send().join();
+    final Duration latency = Duration.between(start, Instant.now());
+
+    bytesSent.addAndGet(resource.length);
+    deployTimeNanos.addAndGet(latency.toNanos());
+    LOGGER.debug("Deployed '{}' ({} bytes) in {}", resourceName, resource.length, latency);
+
+    deployments.put(key, deployment);
+    for (final Process process : deployment.getProcesses()) {
+      latestHashes.put(new ProcessKey(tenantId, process.getBpmnProcessId()), hash);
+    }
+    return deployment;
+  }
+
+  /** Forgets all deployments, e.g. because the engine was replaced. */
+  public synchronized void clear() {
+    deployments.clear();
+    latestHashes.clear();
+  }
+
+  public Metrics getMetrics() {
+    return new Metrics(
+        hits.get(), misses.get(), bytesSent.get(), Duration.ofNanos(deployTimeNanos.get()));
+  }
+
+  private boolean isLatest(
+      final DeploymentEvent deployment, final String tenantId, final String hash) {
+    for (final Process process : deployment.getProcesses()) {
+      final ProcessKey key = new ProcessKey(tenantId, process.getBpmnProcessId());
+      if (!hash.equals(latestHashes.get(key))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String getTenantId(final ZeebeClient client) {
+    final String tenantId = client.getConfiguration().getDefaultTenantId();
+    return tenantId != null ? tenantId : DEFAULT_TENANT;
+  }
+
+  private static String normalizeGeneratedIds(final String xml) {
+    final Map<String, String> stableIds = new HashMap<>();
+    final Matcher matcher = GENERATED_ID.matcher(xml);
+    final StringBuilder normalized = new StringBuilder();
+    while (matcher.find()) {
+      final String stableId =
+          stableIds.computeIfAbsent(matcher.group(), id -> "gen" + (stableIds.size() + 1));
+      matcher.appendReplacement(normalized, stableId);
+    }
+    matcher.appendTail(normalized);
+    return normalized.toString();
+  }
+
+  private static String hash(final String resourceName, final byte[] resource) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(resourceName.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(resource);
+      return HexFormat.of().formatHex(digest.digest());
+
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record DeploymentKey(String tenantId, String hash) {}
+
+  private record ProcessKey(String tenantId, String bpmnProcessId) {}
+
+  /**
+   * @param misses the number of deployments that were sent to the broker
+   * @param bytesSent the total size of the sent resources
+   * @param deployTime the total latency of the sent deployments
+   */
+  public record Metrics(long hits, long misses, long bytesSent, Duration deployTime) {}
+}
@@ -0,0 +1,106 @@
+package io.camunda.test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+
+/** How Elasticsearch and the indices of Zeebe, Operate and Tasklist are configured. */
+public enum ElasticsearchProfile {
+  /** The defaults of the image and the applications. */
+  DEFAULT(false),
+  /**
+   * A small heap, one shard and no replica per index, an asynchronous translog, and a short refresh
+   * interval. The data of a test stack is small and disposable, so durability and replicas only
+   * cost memory and latency.
+   */
+  TUNED(true);
+
+  private static final String HEAP_SIZE = "512m";
+  private static final String REFRESH_INTERVAL = "200ms";
+
+  private static final String INDEX_SETTINGS =
+      """
+      {
+        "index": {
+          "number_of_replicas": 0,
+          "refresh_interval": "%s",
+          "translog.durability": "async"
+        }
+      }"""
+          .formatted(REFRESH_INTERVAL);
+
+  private final boolean tuned;
+
+  ElasticsearchProfile(final boolean tuned) {
+    this.tuned = tuned;
+  }
+
+  public boolean isTuned() {
+    return tuned;
+  }
+
+  /** Applies the JVM and node settings of the profile to the Elasticsearch container. */
+  public ElasticsearchContainer configure(final ElasticsearchContainer container) {
+    if (tuned) {
+      container
+          .withEnv("ES_JAVA_OPTS", "-Xms%s -Xmx%s".formatted(HEAP_SIZE, HEAP_SIZE))
+          .withEnv("cluster.routing.allocation.disk.threshold_enabled", "false")
+          .withEnv("xpack.ml.enabled", "false")
+          .withEnv("ingest.geoip.downloader.enabled", "false");
+    }
+    return container;
+  }
+
+  /**
+   * Applies the index settings of the profile to an application that creates its indices, by the
+   * prefix of its environment variables, e.g. {@code CAMUNDA_OPERATE_ELASTICSEARCH_}.
+   */
+  public void configureIndices(final GenericContainer<?> container, final String envPrefix) {
+    if (tuned) {
+      container.addEnv(envPrefix + "NUMBEROFSHARDS", "1");
+      container.addEnv(envPrefix + "NUMBEROFREPLICAS", "0");
+    }
+  }
+
+  /**
+   * Applies the dynamic index settings of the profile to the existing indices. The applications
+   * create the indices with their own templates, so the settings can't be set by an additional
+   * template. Indices that are created later keep their settings until the next call.
+   */
+  public void applyIndexSettings(final HttpClient httpClient, final String elasticsearchAddress) {
+    if (!tuned) {
+      return;
+    }
+
+    try {
+      final HttpResponse<String> response =
+          httpClient.send(
+              HttpRequest.newBuilder()
+                  .uri(
+                      URI.create(
+                          "http://%s/zeebe-record*,operate-*,tasklist-*/_settings"
+                              .formatted(elasticsearchAddress)))
+                  .header("Content-Type", "application/json")
+                  .PUT(HttpRequest.BodyPublishers.ofString(INDEX_SETTINGS))
+                  .build(),
+              HttpResponse.BodyHandlers.ofString());
+
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException(
+            "Failed to apply the index settings: %d %s"
+                .formatted(response.statusCode(), response.body()));
+      }
+
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
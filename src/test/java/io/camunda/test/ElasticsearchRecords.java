@@ -0,0 +1,183 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.protocol.jackson.ZeebeProtocolModule;
+import io.camunda.zeebe.protocol.record.Record;
+import io.camunda.zeebe.protocol.record.ValueType;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.awaitility.Awaitility;
+
+/**
+ * The records that the Elasticsearch exporter of the broker wrote to Elasticsearch. The exporter
+ * sends the records in bulks, so a record may be written in the broker, but not in Elasticsearch
+ * yet. Used if the records are not streamed to the test JVM, e.g. for reused containers.
+ */
+public class ElasticsearchRecords implements RecordSource {
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper()
+          .registerModule(new ZeebeProtocolModule())
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  private static final TypeReference<Record<?>> RECORD = new TypeReference<>() {};
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private static final String MARKER_QUERY =
+      """
+      {
+        "query": {
+          "bool": {
+            "filter": [
+              {"term": {"intent": "PUBLISHED"}},
+              {"term": {"value.correlationKey": "%s"}}
+            ]
+          }
+        }
+      }""";
+
+  private static final String EVENTS_QUERY =
+      """
+      {
+        "size": %d,
+        "query": {"term": {"recordType": "EVENT"}},
+        "sort": [{"position": "asc"}]
+        %s
+      }""";
+
+  private final HttpClient httpClient;
+  private final String elasticsearchAddress;
+
+  public ElasticsearchRecords(final HttpClient httpClient, final String elasticsearchAddress) {
+    this.httpClient = httpClient;
+    this.elasticsearchAddress = elasticsearchAddress;
+  }
+
+  /**
+   * Publishes a marker message and waits until its record is searchable. The exporter sends the
+   * records in the order of the log, so the records that were written before are searchable too,
+   * also if the exporter collects them in a bulk until the bulk delay. The environment has a single
+   * partition.
+   */
+  @Override
+  public void awaitExported(final ZeebeClient zeebeClient) {
+    final String correlationKey = UUID.randomUUID().toString();
+
+    zeebeClient
+        .newPublishMessageCommand()
+        .messageName(ExportedRecords.EXPORT_MARKER_MESSAGE)
+        .correlationKey(correlationKey)
+        .timeToLive(Duration.ZERO)
+        .send()
+        .join();
+
+    Awaitility.await("the marker message %s is exported".formatted(correlationKey))
+        .atMost(TIMEOUT)
+        .pollDelay(Duration.ZERO)
+        .pollInterval(Duration.ofMillis(50))
+        .until(() -> countMarkers(correlationKey) > 0);
+  }
+
+  /** Returns the events of the value type in the order of the log, page by page. */
+  @Override
+  public List<Record<?>> getRecords(final ValueType valueType) {
+    refresh();
+
+    // e.g. zeebe-record_process-instance_8.6.0_2024-01-01
+    final String index =
+        "zeebe-record_%s*".formatted(valueType.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+    final List<Record<?>> records = new ArrayList<>();
+    String searchAfter = "";
+    while (true) {
+      final JsonNode hits =
+          readTree(
+                  send(
+                      HttpRequest.newBuilder()
+                          .uri(
+                              URI.create(
+                                  "http://%s/%s/_search".formatted(elasticsearchAddress, index)))
+                          .header("Content-Type", "application/json")
+                          .POST(
+                              HttpRequest.BodyPublishers.ofString(
+                                  EVENTS_QUERY.formatted(PAGE_SIZE, searchAfter)))
+                          .build()))
+              .path("hits")
+              .path("hits");
+
+      hits.forEach(hit -> records.add(OBJECT_MAPPER.convertValue(hit.path("_source"), RECORD)));
+
+      if (hits.size() < PAGE_SIZE) {
+        return records;
+      }
+      searchAfter = ", \"search_after\": " + hits.get(hits.size() - 1).path("sort");
+    }
+  }
+
+  private long countMarkers(final String correlationKey) throws IOException {
+    refresh();
+
+    final String response =
+        send(
+            HttpRequest.newBuilder()
+                .uri(
+                    URI.create(
+                        "http://%s/zeebe-record_message*/_count".formatted(elasticsearchAddress)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MARKER_QUERY.formatted(correlationKey)))
+                .build());
+    return OBJECT_MAPPER.readTree(response).path("count").asLong();
+  }
+
+  private void refresh() {
+    send(
+        HttpRequest.newBuilder()
+            .uri(URI.create("http://%s/zeebe-record*/_refresh".formatted(elasticsearchAddress)))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build());
+  }
+
+  private static JsonNode readTree(final String json) {
+    try {
+      return OBJECT_MAPPER.readTree(json);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private String send(final HttpRequest request) {
+    try {
+      final HttpResponse<String> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+      // the index doesn't exist before the first record of its type is exported
+      if (response.statusCode() >= 400 && response.statusCode() != 404) {
+        throw new IllegalStateException(
+            "Request to '%s' failed with status %d: %s"
+                .formatted(request.uri(), response.statusCode(), response.body()));
+      }
+      return response.body();
+
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
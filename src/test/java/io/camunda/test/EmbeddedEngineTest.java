@@ -0,0 +1,109 @@
+package io.camunda.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.ZeebeFuture;
+import io.camunda.zeebe.client.api.response.*;
+import io.camunda.zeebe.client.api.worker.JobWorker;
+import io.camunda.zeebe.model.bpmn.Bpmn;
+import java.time.Duration;
+import java.util.EnumSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class EmbeddedEngineTest {
+
+  @RegisterExtension
+  private static final CamundaTestListener CAMUNDA_TEST_LISTENER =
+      CamundaTestListener.withConfig(
+          CamundaTestEnvironmentConfig.builder().backend(CamundaTestBackend.EMBEDDED).build());
+
+  private ZeebeClient zeebeClient;
+
+  private CamundaTestContext camundaTestContext;
+
+  @Test
+  void shouldRequestTopology() {
+    // given
+    // when
+    var response = zeebeClient.newTopologyRequest().send().join();
+
+    // then
+    assertThat(response.getBrokers())
+        .flatExtracting(BrokerInfo::getPartitions)
+        .extracting(PartitionInfo::getPartitionId, PartitionInfo::getHealth)
+        .contains(tuple(1, PartitionBrokerHealth.HEALTHY));
+  }
+
+  @Test
+  void shouldCompleteProcessInstance() {
+    // given
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("process")
+            .startEvent()
+            .serviceTask("task", t -> t.zeebeJobType("task"))
+            .endEvent()
+            .done(),
+        "process.bpmn");
+
+    try (final JobWorker ignored =
+        zeebeClient
+            .newWorker()
+            .jobType("task")
+            .handler((client, job) -> client.newCompleteCommand(job).variable("x", 1).send().join())
+            .open()) {
+
+      // when
+      final ProcessInstanceResult processInstanceResult =
+          zeebeClient
+              .newCreateInstanceCommand()
+              .bpmnProcessId("process")
+              .latestVersion()
+              .withResult()
+              .send()
+              .join();
+
+      // then
+      assertThat(processInstanceResult.getVariablesAsMap()).containsEntry("x", 1);
+    }
+  }
+
+  @Test
+  void shouldTriggerTimer() {
+    // given
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("timer")
+            .startEvent()
+            .intermediateCatchEvent("wait")
+            .timerWithDuration("P1D")
+            .endEvent()
+            .done(),
+        "timer.bpmn");
+
+    final ZeebeFuture<ProcessInstanceResult> resultFuture =
+        zeebeClient
+            .newCreateInstanceCommand()
+            .bpmnProcessId("timer")
+            .latestVersion()
+            .withResult()
+            .requestTimeout(Duration.ofMinutes(1))
+            .send();
+
+    // when
+    camundaTestContext.getClock().stepToNextTimer();
+
+    // then
+    assertThat(resultFuture.join().getProcessInstanceKey()).isPositive();
+  }
+
+  @Test
+  void shouldNotProvideOtherComponents() {
+    // when/then
+    assertThatThrownBy(() -> camundaTestContext.start(EnumSet.of(CamundaTestComponent.OPERATE)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("embedded backend");
+  }
+}
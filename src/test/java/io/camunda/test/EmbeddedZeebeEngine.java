@@ -0,0 +1,107 @@
+package io.camunda.test;
+
+import io.camunda.zeebe.process.test.api.ZeebeTestEngine;
+import io.camunda.zeebe.process.test.engine.EngineFactory;
+import io.camunda.zeebe.protocol.record.Record;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the Zeebe engine with a gRPC gateway inside the JVM of the tests. The gateway keeps its port
+ * when the engine is restarted, so that connected clients can continue to use it.
+ */
+public class EmbeddedZeebeEngine {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+  private int port;
+  private ZeebeTestEngine engine;
+  // the engine doesn't expose its clock, only moves it
+  private Duration clockOffset = Duration.ZERO;
+
+  public synchronized void start() {
+    if (engine != null) {
+      return;
+    }
+
+    final Instant start = Instant.now();
+    if (port == 0) {
+      port = findFreePort();
+    }
+
+    engine = EngineFactory.create(port);
+    engine.start();
+    clockOffset = Duration.ZERO;
+
+    final Duration startupTime = Duration.between(start, Instant.now());
+    LOGGER.info("Started the embedded engine on port {} in {}", port, startupTime);
+  }
+
+  /** Replaces the engine with a new one, without any state, on the same port. */
+  public synchronized void restart() {
+    stop();
+    start();
+  }
+
+  public synchronized void stop() {
+    if (engine != null) {
+      engine.stop();
+      engine = null;
+    }
+  }
+
+  public synchronized Instant getCurrentTime() {
+    return Instant.now().plus(clockOffset);
+  }
+
+  /**
+   * Moves the clock of the engine forward and waits until the engine is idle, i.e. it processed
+   * the timers that became due. Returns the new time.
+   */
+  public synchronized Instant increaseTime(final Duration duration) {
+    getEngine().increaseTime(duration);
+    clockOffset = clockOffset.plus(duration);
+
+    try {
+      engine.waitForIdleState(IDLE_TIMEOUT);
+    } catch (final TimeoutException e) {
+      throw new IllegalStateException("The embedded engine is not idle after " + IDLE_TIMEOUT, e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+    return getCurrentTime();
+  }
+
+  /** Returns the records that the engine has written so far, in the order of the log. */
+  public synchronized Iterable<Record<?>> getRecords() {
+    return getEngine().getRecordStreamSource().getRecords();
+  }
+
+  private ZeebeTestEngine getEngine() {
+    if (engine == null) {
+      throw new IllegalStateException("The embedded engine is not started");
+    }
+    return engine;
+  }
+
+  public synchronized String getGatewayAddress() {
+    return "localhost:" + port;
+  }
+
+  private static int findFreePort() {
+    try (final ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,289 @@
+package io.camunda.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Statistics;
+import io.camunda.zeebe.model.bpmn.Bpmn;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * Compares the environment with different configurations. The benchmark starts its own stacks
+ * one after the other, so it is only run with {@code -Dcamunda.test.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "camunda.test.benchmark", matches = "true")
+public class EnvironmentBenchmarkTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final int PROCESS_INSTANCES = 50;
+  private static final int THROUGHPUT_PROCESS_INSTANCES = 500;
+
+  private static final String COMPLETED_PROCESS_QUERY =
+      """
+      {
+        "query": {
+          "bool": {
+            "filter": [
+              {"term": {"value.processInstanceKey": %d}},
+              {"term": {"value.bpmnElementType": "PROCESS"}},
+              {"term": {"intent": "ELEMENT_COMPLETED"}}
+            ]
+          }
+        }
+      }""";
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+
+  @Test
+  void shouldCompareElasticsearchProfiles() throws Throwable {
+    // when
+    final Result defaultProfile = run(ElasticsearchProfile.DEFAULT);
+    final Result tunedProfile = run(ElasticsearchProfile.TUNED);
+
+    // then
+    LOGGER.info("Elasticsearch profile DEFAULT: {}", defaultProfile);
+    LOGGER.info("Elasticsearch profile TUNED: {}", tunedProfile);
+
+    assertThat(tunedProfile.heapMax()).isLessThan(defaultProfile.heapMax());
+  }
+
+  @Test
+  void shouldCompareResourcePresets() throws Throwable {
+    for (final ResourcePreset preset : ResourcePreset.values()) {
+      // when
+      final ThroughputResult result =
+          measureThroughput(benchmarkConfig().resourcePreset(preset).build());
+
+      // then
+      LOGGER.info("Resource preset {}: {}", preset, result);
+
+      assertThat(result.throughput()).isPositive();
+    }
+  }
+
+  @Test
+  void shouldCompareTmpfs() throws Throwable {
+    // when
+    final ThroughputResult disk = measureThroughput(benchmarkConfig().build());
+    final ThroughputResult tmpfs = measureThroughput(benchmarkConfig().tmpfsSizeMb(1024).build());
+
+    // then
+    LOGGER.info("Data on the container filesystem: {}", disk);
+    LOGGER.info("Data on tmpfs: {}", tmpfs);
+
+    assertThat(tmpfs.throughput()).isPositive();
+  }
+
+  /**
+   * Returns the base configuration of the benchmarks. It pins the settings that the system
+   * properties may change, so that every benchmark varies only the setting that it compares.
+   */
+  private static CamundaTestEnvironmentConfig.Builder benchmarkConfig() {
+    return CamundaTestEnvironmentConfig.builder()
+        .backend(CamundaTestBackend.CONTAINERS)
+        .reuseEnabled(false)
+        .elasticsearchProfile(ElasticsearchProfile.DEFAULT)
+        .resourcePreset(ResourcePreset.UNLIMITED)
+        .tmpfsSizeMb(0)
+        .identitySnapshotEnabled(false);
+  }
+
+  private ThroughputResult measureThroughput(final CamundaTestEnvironmentConfig config)
+      throws Throwable {
+    final CamundaTestContext context = new CamundaTestContext(config);
+    try {
+      final Duration startup =
+          context
+              .start(EnumSet.of(CamundaTestComponent.ELASTICSEARCH, CamundaTestComponent.ZEEBE))
+              .total();
+      context.deploy(
+          Bpmn.createExecutableProcess("benchmark").startEvent().endEvent().done(),
+          "benchmark.bpmn");
+      createProcessInstance(context);
+
+      final long start = System.nanoTime();
+      final List<CompletableFuture<?>> instances = new ArrayList<>();
+      for (int i = 0; i < THROUGHPUT_PROCESS_INSTANCES; i++) {
+        instances.add(
+            context
+                .getZeebeClient()
+                .newCreateInstanceCommand()
+                .bpmnProcessId("benchmark")
+                .latestVersion()
+                .withResult()
+                .send()
+                .toCompletableFuture());
+      }
+      CompletableFuture.allOf(instances.toArray(CompletableFuture[]::new)).join();
+      final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+
+      return new ThroughputResult(
+          startup,
+          THROUGHPUT_PROCESS_INSTANCES * 1000.0 / Math.max(1, duration.toMillis()),
+          readContainerMemory(context.getElasticsearchContainer().getContainerId()),
+          readContainerMemory(context.getZeebeContainer().getContainerId()));
+
+    } finally {
+      context.close();
+    }
+  }
+
+  private Result run(final ElasticsearchProfile profile) throws Throwable {
+    final CamundaTestEnvironmentConfig config =
+        benchmarkConfig().elasticsearchProfile(profile).build();
+
+    final CamundaTestContext context = new CamundaTestContext(config);
+    try {
+      final Duration startup =
+          context
+              .start(EnumSet.of(CamundaTestComponent.ELASTICSEARCH, CamundaTestComponent.ZEEBE))
+              .total();
+      context.deploy(
+          Bpmn.createExecutableProcess("benchmark").startEvent().endEvent().done(),
+          "benchmark.bpmn");
+
+      // the exporter creates its indices with the first records, like the first test
+      awaitVisibility(context, createProcessInstance(context));
+      context.reset();
+
+      final List<Duration> latencies = new ArrayList<>();
+      for (int i = 0; i < PROCESS_INSTANCES; i++) {
+        final long processInstanceKey = createProcessInstance(context);
+        final long start = System.nanoTime();
+        awaitVisibility(context, processInstanceKey);
+        latencies.add(Duration.ofNanos(System.nanoTime() - start));
+      }
+      latencies.sort(Comparator.naturalOrder());
+
+      final JsonNode jvm = readJvmStats(context);
+      return new Result(
+          startup,
+          latencies.get(latencies.size() / 2),
+          latencies.get(latencies.size() * 95 / 100),
+          jvm.path("mem").path("heap_used_in_bytes").asLong(),
+          jvm.path("mem").path("heap_max_in_bytes").asLong(),
+          readContainerMemory(context.getElasticsearchContainer().getContainerId()));
+
+    } finally {
+      context.close();
+    }
+  }
+
+  private static long createProcessInstance(final CamundaTestContext context) {
+    return context
+        .getZeebeClient()
+        .newCreateInstanceCommand()
+        .bpmnProcessId("benchmark")
+        .latestVersion()
+        .withResult()
+        .send()
+        .join()
+        .getProcessInstanceKey();
+  }
+
+  /** Waits until the completed instance is searchable, without refreshing the indices. */
+  private void awaitVisibility(final CamundaTestContext context, final long processInstanceKey) {
+    final HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(
+                URI.create(
+                    "http://%s/zeebe-record_process-instance*/_count"
+                        .formatted(context.getElasticsearchContainer().getHttpHostAddress())))
+            .header("Content-Type", "application/json")
+            .POST(
+                HttpRequest.BodyPublishers.ofString(
+                    COMPLETED_PROCESS_QUERY.formatted(processInstanceKey)))
+            .build();
+
+    Awaitility.await("process instance %d is visible".formatted(processInstanceKey))
+        .atMost(Duration.ofSeconds(30))
+        .pollDelay(Duration.ZERO)
+        .pollInterval(Duration.ofMillis(10))
+        .until(
+            () -> {
+              final String response =
+                  httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+              return OBJECT_MAPPER.readTree(response).path("count").asLong() > 0;
+            });
+  }
+
+  private JsonNode readJvmStats(final CamundaTestContext context) throws Exception {
+    final HttpResponse<String> response =
+        httpClient.send(
+            HttpRequest.newBuilder()
+                .uri(
+                    URI.create(
+                        "http://%s/_nodes/stats/jvm"
+                            .formatted(context.getElasticsearchContainer().getHttpHostAddress())))
+                .GET()
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+
+    // the stack has a single node
+    return OBJECT_MAPPER.readTree(response.body()).path("nodes").elements().next().path("jvm");
+  }
+
+  private static long readContainerMemory(final String containerId) throws Exception {
+    final AtomicReference<Statistics> statistics = new AtomicReference<>();
+    try (final var callback =
+        DockerClientFactory.instance()
+            .client()
+            .statsCmd(containerId)
+            .withNoStream(true)
+            .exec(
+                new ResultCallback.Adapter<Statistics>() {
+                  @Override
+                  public void onNext(final Statistics object) {
+                    statistics.set(object);
+                  }
+                })) {
+      callback.awaitCompletion(10, TimeUnit.SECONDS);
+    }
+
+    final Statistics stats = statistics.get();
+    return stats != null && stats.getMemoryStats().getUsage() != null
+        ? stats.getMemoryStats().getUsage()
+        : -1;
+  }
+
+  /**
+   * @param visibilityP50 the median time from the completion of an instance until it is searchable
+   * @param containerMemory the memory usage of the Elasticsearch container, from docker stats
+   */
+  private record Result(
+      Duration startup,
+      Duration visibilityP50,
+      Duration visibilityP95,
+      long heapUsed,
+      long heapMax,
+      long containerMemory) {}
+
+  /**
+   * @param throughput the completed process instances per second
+   * @param elasticsearchMemory the memory usage of the Elasticsearch container
+   */
+  private record ThroughputResult(
+      Duration startup, double throughput, long elasticsearchMemory, long zeebeMemory) {}
+}
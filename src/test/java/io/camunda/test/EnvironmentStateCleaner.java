@@ -0,0 +1,257 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.command.ClientStatusException;
+import io.camunda.zeebe.client.api.response.CancelProcessInstanceResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.awaitility.Awaitility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Removes the data of previous tests from a running environment, without restarting the
+ * containers.
+ */
+public class EnvironmentStateCleaner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  // keep the indices that are needed by the apps (e.g. users, sessions, importer positions), and
+  // the definitions that are still deployed in Zeebe
+  private static final String DATA_INDICES =
+      String.join(
+          ",",
+          "zeebe-record*",
+          "operate-*",
+          "tasklist-*",
+          "-*user*",
+          "-*web-session*",
+          "-*migration-steps*",
+          "-*metadata*",
+          "-*import-position*",
+          "-*-process-*",
+          "-*-decision*",
+          "-*-form-*");
+
+  private static final int PAGE_SIZE = 1000;
+
+  // a bucket per process instance, paged with the after key of the previous page
+  private static final String ACTIVE_PROCESS_INSTANCES_QUERY =
+      """
+      {
+        "size": 0,
+        "query": {
+          "bool": {
+            "filter": [
+              {"term": {"value.bpmnElementType": "PROCESS"}},
+              {"terms": {"intent": [
+                "ELEMENT_ACTIVATED", "ELEMENT_COMPLETED", "ELEMENT_TERMINATED"
+              ]}}
+              %s
+            ]
+          }
+        },
+        "aggs": {
+          "processInstances": {
+            "composite": {
+              "size": %d,
+              "sources": [
+                {"processInstanceKey": {"terms": {"field": "value.processInstanceKey"}}}
+              ]
+              %s
+            },
+            "aggs": {
+              "finished": {
+                "filter": {"terms": {"intent": ["ELEMENT_COMPLETED", "ELEMENT_TERMINATED"]}}
+              }
+            }
+          }
+        }
+      }
+      """;
+
+  private final HttpClient httpClient;
+  private final String elasticsearchAddress;
+
+  public EnvironmentStateCleaner(final HttpClient httpClient, final String elasticsearchAddress) {
+    this.httpClient = httpClient;
+    this.elasticsearchAddress = elasticsearchAddress;
+  }
+
+  /** Cancels all process instances that are active, optionally only the ones of the tenant. */
+  public void cancelActiveProcessInstances(final ZeebeClient zeebeClient, final String tenantId) {
+    // the instances that were created last may still be in the bulk of the exporter
+    new ElasticsearchRecords(httpClient, elasticsearchAddress).awaitExported(zeebeClient);
+
+    final Set<Long> activeProcessInstances = findActiveProcessInstances(tenantId);
+    if (activeProcessInstances.isEmpty()) {
+      return;
+    }
+
+    cancelProcessInstances(zeebeClient, activeProcessInstances);
+
+    // wait until the cancellations are exported, before the exported data is deleted
+    Awaitility.await("Process instances are canceled")
+        .atMost(Duration.ofSeconds(30))
+        .pollInterval(Duration.ofMillis(100))
+        .until(() -> findActiveProcessInstances(tenantId).isEmpty());
+  }
+
+  /**
+   * Cancels the process instances and waits for the responses. A process instance that is
+   * completed in the meantime is skipped.
+   */
+  public static void cancelProcessInstances(
+      final ZeebeClient zeebeClient, final Set<Long> processInstanceKeys) {
+    if (processInstanceKeys.isEmpty()) {
+      return;
+    }
+    LOGGER.debug("Cancel {} active process instances", processInstanceKeys.size());
+
+    final List<CompletableFuture<CancelProcessInstanceResponse>> cancellations =
+        processInstanceKeys.stream()
+            .map(
+                processInstanceKey ->
+                    zeebeClient
+                        .newCancelInstanceCommand(processInstanceKey)
+                        .send()
+                        .toCompletableFuture()
+                        .exceptionally(
+                            error -> {
+                              final Throwable cause =
+                                  error instanceof CompletionException ? error.getCause() : error;
+                              // the process instance may be completed in the meantime
+                              if (!(cause instanceof ClientStatusException)) {
+                                LOGGER.warn("Failed to cancel a process instance", error);
+                              }
+                              return null;
+                            }))
+            .toList();
+    CompletableFuture.allOf(cancellations.toArray(CompletableFuture[]::new)).join();
+  }
+
+  /** Deletes the exported records and the data of Operate and Tasklist. */
+  public void deleteData() {
+    deleteData("{\"query\": {\"match_all\": {}}}");
+  }
+
+  /** Deletes the exported records and the data of Operate and Tasklist of the tenant. */
+  public void deleteData(final String tenantId) {
+    deleteData(
+        """
+        {
+          "query": {
+            "bool": {
+              "should": [
+                {"term": {"value.tenantId": "%1$s"}},
+                {"term": {"tenantId": "%1$s"}}
+              ],
+              "minimum_should_match": 1
+            }
+          }
+        }
+        """
+            .formatted(tenantId));
+  }
+
+  private void deleteData(final String query) {
+    send(
+        HttpRequest.newBuilder()
+            .uri(
+                URI.create(
+                    "http://%s/%s/_delete_by_query?conflicts=proceed&refresh=true"
+                        .formatted(elasticsearchAddress, DATA_INDICES)))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(query))
+            .build());
+  }
+
+  private Set<Long> findActiveProcessInstances(final String tenantId) {
+    send(
+        HttpRequest.newBuilder()
+            .uri(URI.create("http://%s/zeebe-record*/_refresh".formatted(elasticsearchAddress)))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build());
+
+    final String tenantFilter =
+        tenantId == null ? "" : ", {\"term\": {\"value.tenantId\": \"%s\"}}".formatted(tenantId);
+
+    final Set<Long> active = new HashSet<>();
+    String after = "";
+    while (true) {
+      final JsonNode processInstances =
+          readTree(
+                  send(
+                      HttpRequest.newBuilder()
+                          .uri(
+                              URI.create(
+                                  "http://%s/zeebe-record_process-instance*/_search"
+                                      .formatted(elasticsearchAddress)))
+                          .header("Content-Type", "application/json")
+                          .POST(
+                              HttpRequest.BodyPublishers.ofString(
+                                  ACTIVE_PROCESS_INSTANCES_QUERY.formatted(
+                                      tenantFilter, PAGE_SIZE, after)))
+                          .build()))
+              .path("aggregations")
+              .path("processInstances");
+
+      final JsonNode buckets = processInstances.path("buckets");
+      buckets.forEach(
+          bucket -> {
+            if (bucket.path("finished").path("doc_count").asLong() == 0) {
+              active.add(bucket.path("key").path("processInstanceKey").asLong());
+            }
+          });
+
+      final JsonNode afterKey = processInstances.path("after_key");
+      if (buckets.size() < PAGE_SIZE || afterKey.isMissingNode()) {
+        return active;
+      }
+      after = ", \"after\": " + afterKey;
+    }
+  }
+
+  private String send(final HttpRequest request) {
+    try {
+      final HttpResponse<String> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+      if (response.statusCode() >= 400 && response.statusCode() != 404) {
+        throw new IllegalStateException(
+            "Request to '%s' failed with status %d: %s"
+                .formatted(request.uri(), response.statusCode(), response.body()));
+      }
+      return response.body();
+
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static JsonNode readTree(final String json) {
+    try {
+      return OBJECT_MAPPER.readTree(json);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
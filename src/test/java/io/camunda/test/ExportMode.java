@@ -0,0 +1,29 @@
+package io.camunda.test;
+
+/** How the Elasticsearch exporter of Zeebe sends the records to Elasticsearch. */
+public enum ExportMode {
+  /** Every record is sent in its own bulk request, for the shortest visibility latency. */
+  IMMEDIATE(1, 1),
+  /**
+   * Records are collected in large bulk requests that are sent when the bulk is full or delayed by
+   * one second, for a high throughput. A record becomes visible up to the bulk delay after it is
+   * written, because the bulk of the exporter can't be flushed from outside the broker.
+   */
+  BATCHED(1000, 1);
+
+  private final int bulkSize;
+  private final int bulkDelaySeconds;
+
+  ExportMode(final int bulkSize, final int bulkDelaySeconds) {
+    this.bulkSize = bulkSize;
+    this.bulkDelaySeconds = bulkDelaySeconds;
+  }
+
+  public int getBulkSize() {
+    return bulkSize;
+  }
+
+  public int getBulkDelaySeconds() {
+    return bulkDelaySeconds;
+  }
+}
@@ -0,0 +1,177 @@
+package io.camunda.test;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.protocol.record.Record;
+import io.camunda.zeebe.protocol.record.RecordType;
+import io.camunda.zeebe.protocol.record.ValueType;
+import io.camunda.zeebe.protocol.record.intent.Intent;
+import io.camunda.zeebe.protocol.record.intent.JobIntent;
+import io.camunda.zeebe.protocol.record.intent.MessageIntent;
+import io.camunda.zeebe.protocol.record.intent.ProcessInstanceIntent;
+import io.camunda.zeebe.protocol.record.intent.UserTaskIntent;
+import io.camunda.zeebe.protocol.record.value.BpmnElementType;
+import io.camunda.zeebe.protocol.record.value.JobRecordValue;
+import io.camunda.zeebe.protocol.record.value.MessageRecordValue;
+import io.camunda.zeebe.protocol.record.value.ProcessInstanceRecordValue;
+import io.camunda.zeebe.protocol.record.value.ProcessInstanceRelated;
+import io.camunda.zeebe.protocol.record.value.UserTaskRecordValue;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The records that the broker exports to the test JVM with the debug exporter. A record can be
+ * awaited as soon as the broker exported it, without waiting until Elasticsearch indexed it. Only
+ * events are kept, commands and rejections are skipped.
+ */
+public class ExportedRecords implements Consumer<Record<?>>, RecordSource {
+
+  public static final RecordCollector.LongIndex<Record<?>> BY_PROCESS_INSTANCE_KEY =
+      new RecordCollector.LongIndex<>("processInstanceKey", ExportedRecords::processInstanceKeyOf);
+  public static final RecordCollector.StringIndex<Record<?>> BY_ELEMENT_ID =
+      new RecordCollector.StringIndex<>("elementId", ExportedRecords::elementIdOf);
+  public static final RecordCollector.StringIndex<Record<?>> BY_VALUE_TYPE =
+      new RecordCollector.StringIndex<>("valueType", record -> record.getValueType().name());
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  // a message without subscriptions, its record marks the position of the export
+  static final String EXPORT_MARKER_MESSAGE = "camunda-test-export-marker";
+
+  private volatile RecordCollector<Record<?>> records = newCollector();
+
+  @Override
+  public void accept(final Record<?> record) {
+    if (record.getRecordType() == RecordType.EVENT) {
+      records.add(record);
+    }
+  }
+
+  /** Forgets the records that are exported so far, e.g. when the environment is reset. */
+  public void clear() {
+    records = newCollector();
+  }
+
+  /** Returns all records in the order in which they were exported. */
+  public List<Record<?>> getAll() {
+    return records.getAll();
+  }
+
+  /** Returns the records of the process instance in the order in which they were exported. */
+  public List<Record<?>> getProcessInstanceRecords(final long processInstanceKey) {
+    return records.find(BY_PROCESS_INSTANCE_KEY, processInstanceKey);
+  }
+
+  /** Returns the records of the value type, e.g. TIMER, in the order of the export. */
+  @Override
+  public List<Record<?>> getRecords(final ValueType valueType) {
+    return records.find(BY_VALUE_TYPE, valueType.name());
+  }
+
+  /** Waits until a record of the value type that matches the filter is exported, and returns it. */
+  public Record<?> awaitRecord(final ValueType valueType, final Predicate<Record<?>> filter) {
+    return records.awaitFirst(BY_VALUE_TYPE, valueType.name(), filter, TIMEOUT);
+  }
+
+  /**
+   * Publishes a marker message and waits until its record is exported. The broker exports the
+   * records in the order of the log, so the records that were written before are exported too.
+   * The environment has a single partition.
+   */
+  @Override
+  public void awaitExported(final ZeebeClient zeebeClient) {
+    final String correlationKey = UUID.randomUUID().toString();
+
+    zeebeClient
+        .newPublishMessageCommand()
+        .messageName(EXPORT_MARKER_MESSAGE)
+        .correlationKey(correlationKey)
+        .timeToLive(Duration.ZERO)
+        .send()
+        .join();
+
+    awaitRecord(
+        ValueType.MESSAGE,
+        record ->
+            record.getIntent() == MessageIntent.PUBLISHED
+                && record.getValue() instanceof final MessageRecordValue message
+                && correlationKey.equals(message.getCorrelationKey()));
+  }
+
+  /** Returns the keys of the process instances that are activated, but not completed or ended. */
+  public Set<Long> getActiveProcessInstanceKeys() {
+    final Set<Long> active = new HashSet<>();
+    for (final Record<?> record : getRecords(ValueType.PROCESS_INSTANCE)) {
+      final ProcessInstanceRecordValue value = (ProcessInstanceRecordValue) record.getValue();
+      if (value.getBpmnElementType() != BpmnElementType.PROCESS) {
+        continue;
+      }
+
+      if (record.getIntent() == ProcessInstanceIntent.ELEMENT_ACTIVATED) {
+        active.add(value.getProcessInstanceKey());
+      } else if (record.getIntent() == ProcessInstanceIntent.ELEMENT_COMPLETED
+          || record.getIntent() == ProcessInstanceIntent.ELEMENT_TERMINATED) {
+        active.remove(value.getProcessInstanceKey());
+      }
+    }
+    return active;
+  }
+
+  /** Waits until the element of the process instance reached the state, e.g. ELEMENT_COMPLETED. */
+  public Record<ProcessInstanceRecordValue> awaitElement(
+      final long processInstanceKey, final String elementId, final Intent intent) {
+    return await(processInstanceKey, ValueType.PROCESS_INSTANCE, elementId, intent);
+  }
+
+  /** Waits until the job of the element is created, and returns it. */
+  public Record<JobRecordValue> awaitJobCreated(
+      final long processInstanceKey, final String elementId) {
+    return await(processInstanceKey, ValueType.JOB, elementId, JobIntent.CREATED);
+  }
+
+  /** Waits until the user task of the element is created, and returns it. */
+  public Record<UserTaskRecordValue> awaitUserTaskCreated(
+      final long processInstanceKey, final String elementId) {
+    return await(processInstanceKey, ValueType.USER_TASK, elementId, UserTaskIntent.CREATED);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <V> Record<V> await(
+      final long processInstanceKey,
+      final ValueType valueType,
+      final String elementId,
+      final Intent intent) {
+    return (Record<V>)
+        records.awaitFirst(
+            BY_PROCESS_INSTANCE_KEY,
+            processInstanceKey,
+            record ->
+                record.getValueType() == valueType
+                    && record.getIntent() == intent
+                    && elementId.equals(elementIdOf(record)),
+            TIMEOUT);
+  }
+
+  private static RecordCollector<Record<?>> newCollector() {
+    return new RecordCollector<>(BY_PROCESS_INSTANCE_KEY, BY_ELEMENT_ID, BY_VALUE_TYPE);
+  }
+
+  private static long processInstanceKeyOf(final Record<?> record) {
+    return record.getValue() instanceof final ProcessInstanceRelated value
+        ? value.getProcessInstanceKey()
+        : -1;
+  }
+
+  private static String elementIdOf(final Record<?> record) {
+    return switch (record.getValue()) {
+      case final ProcessInstanceRecordValue value -> value.getElementId();
+      case final JobRecordValue value -> value.getElementId();
+      case final UserTaskRecordValue value -> value.getElementId();
+      default -> null;
+    };
+  }
+}
@@ -0,0 +1,113 @@
+package io.camunda.test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.OptionalInt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+/**
+ * Waits until the readiness endpoint of an application returns {@code 200}. The endpoint is polled
+ * with a short interval that backs off to a cap, so that the container is used as soon as it is
+ * ready. The time until the application responds and until it is ready is logged.
+ *
+ * <p>A mapped port accepts connections as soon as the container runs, even if the application
+ * doesn't listen yet. So the first HTTP response marks the start of the application, instead of
+ * an open port.
+ */
+public final class HttpReadinessWaitStrategy extends AbstractWaitStrategy {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final Duration INITIAL_INTERVAL = Duration.ofMillis(50);
+  private static final Duration MAX_INTERVAL = Duration.ofMillis(500);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(2);
+
+  private final String name;
+  private final int port;
+  private final String path;
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+
+  public HttpReadinessWaitStrategy(final String name, final int port, final String path) {
+    this.name = name;
+    this.port = port;
+    this.path = path;
+    withStartupTimeout(Duration.ofMinutes(3));
+  }
+
+  @Override
+  protected void waitUntilReady() {
+    final URI uri =
+        URI.create(
+            "http://%s:%d%s"
+                .formatted(
+                    waitStrategyTarget.getHost(), waitStrategyTarget.getMappedPort(port), path));
+    final HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+
+    final long start = System.nanoTime();
+    final long deadline = start + startupTimeout.toNanos();
+    Duration interval = INITIAL_INTERVAL;
+    long firstResponse = 0;
+
+    while (true) {
+      final OptionalInt status = send(request);
+      if (status.isPresent() && firstResponse == 0) {
+        firstResponse = System.nanoTime();
+      }
+      if (status.isPresent() && status.getAsInt() == 200) {
+        break;
+      }
+
+      if (System.nanoTime() + interval.toNanos() > deadline) {
+        throw new ContainerLaunchException(
+            "Timed out waiting for %s to be ready at %s (last status: %s)"
+                .formatted(name, uri, status.isPresent() ? status.getAsInt() : "no response"));
+      }
+      sleep(interval);
+      interval = min(interval.multipliedBy(2), MAX_INTERVAL);
+    }
+
+    final long ready = System.nanoTime();
+    LOGGER.info(
+        "{} is ready after {} (responding after {}, then ready after {})",
+        name,
+        Duration.ofNanos(ready - start),
+        Duration.ofNanos(firstResponse - start),
+        Duration.ofNanos(ready - firstResponse));
+  }
+
+  private OptionalInt send(final HttpRequest request) {
+    try {
+      return OptionalInt.of(
+          httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+
+    } catch (final IOException e) {
+      // not listening yet
+      return OptionalInt.empty();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContainerLaunchException("Interrupted while waiting for " + name, e);
+    }
+  }
+
+  private void sleep(final Duration interval) {
+    try {
+      Thread.sleep(interval);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ContainerLaunchException("Interrupted while waiting for " + name, e);
+    }
+  }
+
+  private static Duration min(final Duration a, final Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+}
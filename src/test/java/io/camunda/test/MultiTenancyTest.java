@@ -20,6 +20,8 @@ public class MultiTenancyTest {
 
   private ZeebeClient zeebeClient;
 
+  private CamundaTestMultiInstanceContext camundaTestContext;
+
   @Test
   void shouldStartContainers() {
     assertThat(zeebeClient).isNotNull();
@@ -47,11 +49,7 @@ public class MultiTenancyTest {
 
     // when
     final DeploymentEvent deploymentEvent =
-        zeebeClient
-            .newDeployResourceCommand()
-            .addProcessModel(process, "process.bpmn")
-            .send()
-            .join();
+        camundaTestContext.deploy(zeebeClient, process, "process.bpmn");
 
     // then
     final ProcessInstanceResult processInstanceResult =
@@ -63,10 +61,8 @@ public class MultiTenancyTest {
             .send()
             .join();
 
-    assertThat(deploymentEvent.getTenantId())
-        .isEqualTo("io.camunda.test.MultiTenancyTest_shouldDeployProcess");
+    assertThat(deploymentEvent.getTenantId()).startsWith(TenantPool.TENANT_ID_PREFIX);
 
-    assertThat(processInstanceResult.getTenantId())
-        .isEqualTo("io.camunda.test.MultiTenancyTest_shouldDeployProcess");
+    assertThat(processInstanceResult.getTenantId()).isEqualTo(deploymentEvent.getTenantId());
   }
 }
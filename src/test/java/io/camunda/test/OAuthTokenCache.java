@@ -0,0 +1,204 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.zeebe.client.CredentialsProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches an access token with the client credentials grant and shares it until it expires. The
+ * token is refreshed in the background before it expires, so that requests don't wait for the
+ * authorization server. Used as the credentials provider of all clients of a context.
+ */
+public final class OAuthTokenCache implements CredentialsProvider {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  // refresh after this share of the lifetime, or this margin before the expiry
+  private static final double REFRESH_RATIO = 0.8;
+  private static final Duration REFRESH_MARGIN = Duration.ofSeconds(30);
+
+  private final HttpClient httpClient;
+  private final Supplier<String> tokenUrl;
+  private final String form;
+
+  private volatile Token token;
+  // the token was invalidated because a request was rejected with it
+  private boolean rejected;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private final AtomicLong fetches = new AtomicLong();
+
+  /**
+   * @param tokenUrl the token endpoint, resolved on the first fetch because the port of the
+   *     authorization server is only known after it started
+   */
+  public OAuthTokenCache(
+      final HttpClient httpClient,
+      final Supplier<String> tokenUrl,
+      final String clientId,
+      final String clientSecret,
+      final String audience) {
+    this.httpClient = httpClient;
+    this.tokenUrl = tokenUrl;
+    form =
+        "grant_type=client_credentials&client_id=%s&client_secret=%s&audience=%s"
+            .formatted(encode(clientId), encode(clientSecret), encode(audience));
+  }
+
+  @Override
+  public void applyCredentials(final CredentialsApplier applier) {
+    applier.put("Authorization", "Bearer " + getToken());
+  }
+
+  @Override
+  public synchronized boolean shouldRetryRequest(final StatusCode statusCode) {
+    if (!statusCode.isUnauthorized()) {
+      return false;
+    }
+
+    final Token current = token;
+    if (current != null && current.replacesRejected()) {
+      // the new token is rejected too, e.g. because the client is not authorized: don't retry
+      return false;
+    }
+
+    // the token may be revoked, e.g. because Keycloak was restarted: retry once with a new token
+    token = null;
+    rejected = true;
+    return true;
+  }
+
+  /** Returns a valid access token, and fetches one if there is none. */
+  public String getToken() {
+    final Token current = token;
+    final Instant now = Instant.now();
+
+    if (current != null && now.isBefore(current.expiresAt())) {
+      if (!now.isBefore(current.refreshAt())) {
+        refreshInBackground();
+      }
+      return current.value();
+    }
+    return fetchIfExpired();
+  }
+
+  public synchronized void invalidate() {
+    token = null;
+  }
+
+  public long getFetches() {
+    return fetches.get();
+  }
+
+  private synchronized String fetchIfExpired() {
+    // another thread may have fetched the token while this one waited
+    final Token current = token;
+    if (current != null && Instant.now().isBefore(current.expiresAt())) {
+      return current.value();
+    }
+    final Token fetched = fetch();
+    token = rejected ? fetched.asReplacement() : fetched;
+    rejected = false;
+    return token.value();
+  }
+
+  private void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+
+    CompletableFuture.runAsync(
+        () -> {
+          try {
+            final Token refreshed = fetch();
+            synchronized (this) {
+              token = refreshed;
+            }
+          } catch (final RuntimeException e) {
+            // the current token is still valid, the next request tries again
+            LOGGER.warn("Failed to refresh the access token", e);
+          } finally {
+            refreshing.set(false);
+          }
+        });
+  }
+
+  private Token fetch() {
+    final HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create(tokenUrl.get()))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString(form))
+            .build();
+
+    try {
+      final Instant requested = Instant.now();
+      final HttpResponse<String> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException(
+            "Failed to fetch an access token: %d %s"
+                .formatted(response.statusCode(), response.body()));
+      }
+      fetches.incrementAndGet();
+
+      final JsonNode body = OBJECT_MAPPER.readTree(response.body());
+      final Duration lifetime = Duration.ofSeconds(body.path("expires_in").asLong(60));
+      final Duration refreshAfter =
+          min(
+              Duration.ofMillis((long) (lifetime.toMillis() * REFRESH_RATIO)),
+              lifetime.minus(REFRESH_MARGIN));
+
+      // the lifetime counts from the request, in case the response was slow
+      return new Token(
+          body.path("access_token").asText(),
+          requested.plus(refreshAfter.isNegative() ? Duration.ZERO : refreshAfter),
+          requested.plus(lifetime),
+          false);
+
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String encode(final String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private static Duration min(final Duration a, final Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+
+  /**
+   * @param replacesRejected the token was fetched after a request was rejected with the previous
+   *     token, a request that is rejected with this token is not retried
+   */
+  private record Token(
+      String value, Instant refreshAt, Instant expiresAt, boolean replacesRejected) {
+
+    private Token asReplacement() {
+      return new Token(value, refreshAt, expiresAt, true);
+    }
+  }
+}
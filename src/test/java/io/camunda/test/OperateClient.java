@@ -0,0 +1,74 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A client for the public API of Operate that uses the session of the demo user. */
+public class OperateClient {
+
+  private static final ObjectReader PROCESS_INSTANCES_READER =
+      WebAppSession.readerFor(new TypeReference<SearchResponse<ProcessInstance>>() {});
+  private static final ObjectWriter SORT_VALUES_WRITER = new ObjectMapper().writer();
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final WebAppSession session;
+
+  public OperateClient(final String endpoint) {
+    session = new WebAppSession(endpoint);
+  }
+
+  /** Returns all process instances, ordered by key descending. */
+  public List<ProcessInstance> searchProcessInstances() throws IOException, InterruptedException {
+    return searchProcessInstances(Long.MIN_VALUE);
+  }
+
+  /**
+   * Returns the process instances with the given key or a higher one, ordered by key descending.
+   * The keys of a partition increase, so the pages stop at the first older instance.
+   */
+  public List<ProcessInstance> searchProcessInstances(final long minKey)
+      throws IOException, InterruptedException {
+    final List<ProcessInstance> processInstances = new ArrayList<>();
+    String searchAfter = "";
+    while (true) {
+      final SearchResponse<ProcessInstance> response =
+          session.post(
+              "/v1/process-instances/search",
+              """
+              {"size": %d, "sort": [{"field": "key", "order": "DESC"}]%s}"""
+                  .formatted(PAGE_SIZE, searchAfter),
+              PROCESS_INSTANCES_READER);
+      processInstances.addAll(response.items());
+
+      // a full page isn't empty
+      if (response.items().size() < PAGE_SIZE
+          || response.sortValues() == null
+          || response.items().getLast().key() < minKey) {
+        return processInstances;
+      }
+      // the next page starts after the last process instance of this page
+      searchAfter =
+          ", \"searchAfter\": " + SORT_VALUES_WRITER.writeValueAsString(response.sortValues());
+    }
+  }
+
+  public WebAppSession getSession() {
+    return session;
+  }
+
+  public record ProcessInstance(
+      long key,
+      String bpmnProcessId,
+      long processDefinitionKey,
+      Long parentKey,
+      String state,
+      String tenantId) {}
+
+  record SearchResponse<T>(List<T> items, List<Object> sortValues, long total) {}
+}
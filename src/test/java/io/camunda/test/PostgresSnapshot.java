@@ -0,0 +1,118 @@
+package io.camunda.test;
+
+import com.github.dockerjava.api.exception.NotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.Container;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * A Docker image of Postgres with the data of an initialized identity stack, i.e. the realm,
+ * clients and users of Keycloak and the data of Identity. The image is tagged with a hash of the
+ * images and the environment of the containers that initialize the data, so that a changed
+ * configuration creates a new snapshot. A stack that starts from the snapshot skips the
+ * initialization.
+ *
+ * <p>The data directory is moved out of the volume of the Postgres image, because {@code docker
+ * commit} doesn't include volumes.
+ */
+public final class PostgresSnapshot {
+
+  public static final String REPOSITORY = "camunda-test-postgres-snapshot";
+  public static final String DATA_DIRECTORY = "/var/lib/postgresql/snapshot";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private final String tag;
+
+  public PostgresSnapshot(
+      final String postgresImage, final List<GenericContainer<?>> initializingContainers) {
+    final StringBuilder configuration = new StringBuilder(postgresImage).append(DATA_DIRECTORY);
+    initializingContainers.forEach(
+        container ->
+            configuration
+                .append('|')
+                .append(container.getDockerImageName())
+                // the iteration order of the map is not stable across JVMs
+                .append(new TreeMap<>(container.getEnvMap())));
+    tag = hash(configuration.toString());
+  }
+
+  public DockerImageName getImageName() {
+    return DockerImageName.parse(REPOSITORY + ":" + tag).asCompatibleSubstituteFor("postgres");
+  }
+
+  public boolean exists() {
+    try {
+      DockerClientFactory.instance()
+          .client()
+          .inspectImageCmd(getImageName().asCanonicalNameString())
+          .exec();
+      return true;
+    } catch (final NotFoundException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Commits the data of the running container as the snapshot. A failure is only logged, because
+   * the stack runs without the snapshot as well.
+   */
+  public void capture(final PostgreSQLContainer<?> container) {
+    try {
+      // write all changes to the data files, so that the snapshot doesn't need a recovery
+      final Container.ExecResult checkpoint =
+          container.execInContainer(
+              "psql",
+              "-U",
+              container.getUsername(),
+              "-d",
+              container.getDatabaseName(),
+              "-c",
+              "CHECKPOINT");
+      if (checkpoint.getExitCode() != 0) {
+        LOGGER.warn("Failed to capture the Postgres snapshot: {}", checkpoint.getStderr());
+        return;
+      }
+
+      DockerClientFactory.instance()
+          .client()
+          .commitCmd(container.getContainerId())
+          .withRepository(REPOSITORY)
+          .withTag(tag)
+          // replace the session label of the container, otherwise the image is removed with the
+          // containers of the session
+          .withLabels(Map.of(DockerClientFactory.TESTCONTAINERS_SESSION_ID_LABEL, REPOSITORY))
+          .exec();
+      LOGGER.info("Captured the Postgres snapshot {}", getImageName().asCanonicalNameString());
+
+    } catch (final IOException | RuntimeException e) {
+      LOGGER.warn("Failed to capture the Postgres snapshot", e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String hash(final String value) {
+    try {
+      final byte[] hash =
+          MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(hash, 0, 6);
+
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
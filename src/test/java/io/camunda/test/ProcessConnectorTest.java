@@ -35,11 +35,7 @@ public class ProcessConnectorTest {
   @Test
   void shouldRunConnector() {
     // given
-    zeebeClient
-        .newDeployResourceCommand()
-        .addResourceFromClasspath("weather-info.bpmn")
-        .send()
-        .join();
+    camundaTestContext.deployResourceFromClasspath("weather-info.bpmn");
 
     // mock Slack worker
     zeebeClient
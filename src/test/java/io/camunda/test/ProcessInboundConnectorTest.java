@@ -5,7 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import io.camunda.zeebe.client.ZeebeClient;
 import io.camunda.zeebe.client.api.response.*;
 
-import java.net.CookieManager;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
@@ -15,7 +15,6 @@ import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 
-import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 
@@ -35,13 +34,9 @@ public class ProcessInboundConnectorTest {
   }
 
   @Test
-  void shouldRunConnector() throws URISyntaxException {
+  void shouldRunConnector() throws URISyntaxException, IOException, InterruptedException {
     // given
-    zeebeClient
-        .newDeployResourceCommand()
-        .addResourceFromClasspath("inbound-demo.bpmn")
-        .send()
-        .join();
+    camundaTestContext.deployResourceFromClasspath("inbound-demo.bpmn");
 
     // when
     String connectorsEndpoint =
@@ -59,15 +54,12 @@ public class ProcessInboundConnectorTest {
             .GET()
             .build();
 
-    Awaitility.await()
-        .untilAsserted(
-            () -> {
-              HttpResponse<String> response =
-                  httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    camundaTestContext.awaitInboundConnector("9cb2fd06-70f7-4a22-ac50-a9dddc44e25a");
 
-              // then
-              assertThat(response.statusCode()).isEqualTo(200);
-              assertThat(response.body()).contains("processInstanceKey");
-            });
+    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+    // then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.body()).contains("processInstanceKey");
   }
 }
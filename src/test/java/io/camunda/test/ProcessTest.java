@@ -3,16 +3,17 @@ package io.camunda.test;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.camunda.zeebe.client.ZeebeClient;
 import io.camunda.zeebe.client.api.ZeebeFuture;
 import io.camunda.zeebe.client.api.response.*;
 import io.camunda.zeebe.model.bpmn.Bpmn;
 import io.camunda.zeebe.model.bpmn.BpmnModelInstance;
-import org.awaitility.Awaitility;
+import io.camunda.zeebe.protocol.record.Record;
+import io.camunda.zeebe.protocol.record.intent.ProcessInstanceIntent;
+import io.camunda.zeebe.protocol.record.value.JobRecordValue;
+import io.camunda.zeebe.protocol.record.value.UserTaskRecordValue;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfSystemProperty;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
@@ -22,9 +23,6 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
 @ExtendWith(CamundaTestListener.class)
 public class ProcessTest {
@@ -59,12 +57,7 @@ public class ProcessTest {
         Bpmn.createExecutableProcess("process").startEvent().endEvent().done();
 
     // when
-    final DeploymentEvent deploymentEvent =
-        zeebeClient
-            .newDeployResourceCommand()
-            .addProcessModel(process, "process.bpmn")
-            .send()
-            .join();
+    final DeploymentEvent deploymentEvent = camundaTestContext.deploy(process, "process.bpmn");
 
     // then
     final ProcessInstanceResult processInstanceResult =
@@ -82,72 +75,115 @@ public class ProcessTest {
   }
 
   @Test
-  void shouldFindProcessInstance() throws URISyntaxException, IOException, InterruptedException {
+  void shouldSkipRedundantDeployment() {
     // given
-    zeebeClient
-        .newDeployResourceCommand()
-        .addProcessModel(
-            Bpmn.createExecutableProcess("process")
-                .startEvent()
-                .userTask("A")
-                .zeebeUserTask()
-                .endEvent()
-                .done(),
-            "process.bpmn")
-        .send()
-        .join();
+    final DeploymentEvent firstDeployment =
+        camundaTestContext.deploy(
+            Bpmn.createExecutableProcess("redundant-deployment").startEvent().endEvent().done(),
+            "redundant-deployment.bpmn");
 
-    long processInstanceKey =
+    // when
+    final DeploymentEvent secondDeployment =
+        camundaTestContext.deploy(
+            Bpmn.createExecutableProcess("redundant-deployment").startEvent().endEvent().done(),
+            "redundant-deployment.bpmn");
+
+    // then
+    assertThat(secondDeployment.getKey()).isEqualTo(firstDeployment.getKey());
+  }
+
+  @Test
+  void shouldDeployChangedModelAsNewVersion() {
+    // given
+    final DeploymentEvent firstDeployment =
+        camundaTestContext.deploy(
+            Bpmn.createExecutableProcess("changed-model").startEvent().endEvent().done(),
+            "changed-model.bpmn");
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("changed-model").startEvent().userTask().endEvent().done(),
+        "changed-model.bpmn");
+
+    // when
+    final DeploymentEvent thirdDeployment =
+        camundaTestContext.deploy(
+            Bpmn.createExecutableProcess("changed-model").startEvent().endEvent().done(),
+            "changed-model.bpmn");
+
+    // then
+    assertThat(thirdDeployment.getProcesses().getFirst().getVersion())
+        .isGreaterThan(firstDeployment.getProcesses().getFirst().getVersion());
+  }
+
+  @Test
+  // the record stream is not available for reused containers
+  @DisabledIfSystemProperty(named = CamundaTestEnvironmentConfig.REUSE_PROPERTY, matches = "true")
+  void shouldAwaitExportedRecords() {
+    // given
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("exported-records")
+            .startEvent()
+            .serviceTask("task", t -> t.zeebeJobType("exported-records"))
+            .userTask("review")
+            .zeebeUserTask()
+            .endEvent()
+            .done(),
+        "exported-records.bpmn");
+
+    final long processInstanceKey =
         zeebeClient
             .newCreateInstanceCommand()
-            .bpmnProcessId("process")
+            .bpmnProcessId("exported-records")
             .latestVersion()
             .send()
             .join()
             .getProcessInstanceKey();
 
+    final ExportedRecords exportedRecords = camundaTestContext.getExportedRecords();
+
     // when
-    String operateRestEndpoint =
-        "http://"
-            + camundaTestContext.getOperateContainer().getHost()
-            + ":"
-            + camundaTestContext.getOperateContainer().getMappedPort(8080);
+    final Record<JobRecordValue> job =
+        exportedRecords.awaitJobCreated(processInstanceKey, "task");
+    zeebeClient.newCompleteCommand(job.getKey()).send().join();
 
-    // curl -c cookie.txt -X POST 'http://localhost:8080/api/login?username=demo&password=demo'
-    HttpRequest authRequest =
-        HttpRequest.newBuilder()
-            .uri(new URI(operateRestEndpoint + "/api/login?username=demo&password=demo"))
-            .POST(HttpRequest.BodyPublishers.noBody())
-            .build();
+    // then
+    exportedRecords.awaitElement(
+        processInstanceKey, "task", ProcessInstanceIntent.ELEMENT_COMPLETED);
 
-    HttpClient httpClient =
-        HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .cookieHandler(new CookieManager())
-            .build();
+    final Record<UserTaskRecordValue> userTask =
+        exportedRecords.awaitUserTaskCreated(processInstanceKey, "review");
+    assertThat(userTask.getValue().getUserTaskKey()).isPositive();
+  }
 
-    httpClient.send(authRequest, HttpResponse.BodyHandlers.ofString());
+  @Test
+  @CamundaTestComponents(CamundaTestComponent.OPERATE)
+  void shouldFindProcessInstance() {
+    // given
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("process")
+            .startEvent()
+            .userTask("A")
+            .zeebeUserTask()
+            .endEvent()
+            .done(),
+        "process.bpmn");
 
-    var before = Instant.now();
+    long processInstanceKey =
+        zeebeClient
+            .newCreateInstanceCommand()
+            .bpmnProcessId("process")
+            .latestVersion()
+            .send()
+            .join()
+            .getProcessInstanceKey();
 
-    HttpRequest request =
-        HttpRequest.newBuilder()
-            .uri(new URI(operateRestEndpoint + "/v1/process-instances/" + processInstanceKey))
-            .header("Content-Type", "application/json")
-            .GET()
-            .build();
+    // when
+    var before = Instant.now();
 
-    Awaitility.await()
-        .pollInterval(Duration.ofMillis(100))
-        .untilAsserted(
-            () -> {
-              HttpResponse<String> response =
-                  httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    final OperateClient.ProcessInstance processInstance =
+        camundaTestContext.awaitProcessInstance(processInstanceKey, "ACTIVE");
 
-              // then
-              assertThat(response.statusCode()).isEqualTo(200);
-              assertThat(response.body()).contains("\"state\":\"ACTIVE\"");
-            });
+    // then
+    assertThat(processInstance.bpmnProcessId()).isEqualTo("process");
 
     var after = Instant.now();
 
@@ -155,30 +191,34 @@ public class ProcessTest {
   }
 
   @Test
+  @CamundaTestComponents(CamundaTestComponent.TASKLIST)
   void shouldCompleteUserTask() throws URISyntaxException, IOException, InterruptedException {
     // given
-    zeebeClient
-        .newDeployResourceCommand()
-        .addProcessModel(
-            Bpmn.createExecutableProcess("process")
+    final DeploymentEvent deploymentEvent =
+        camundaTestContext.deploy(
+            Bpmn.createExecutableProcess("complete-user-task")
                 .startEvent()
                 .userTask("A")
                 .zeebeUserTask()
                 .endEvent()
                 .done(),
-            "process.bpmn")
-        .send()
-        .join();
+            "complete-user-task.bpmn");
 
     ZeebeFuture<ProcessInstanceResult> resultFuture =
         zeebeClient
             .newCreateInstanceCommand()
-            .bpmnProcessId("process")
+            .bpmnProcessId("complete-user-task")
             .latestVersion()
             .withResult()
             .send();
 
-    long userTaskKey = 2251799813685256L;
+    // the environment is shared with other tests, so the user task key is not predictable
+    final long processDefinitionKey =
+        deploymentEvent.getProcesses().getFirst().getProcessDefinitionKey();
+    final long userTaskKey =
+        camundaTestContext
+            .awaitUserTask(task -> task.processDefinitionKey() == processDefinitionKey)
+            .id();
 
     // when
     String zeebeRestEndpoint =
@@ -204,21 +244,18 @@ public class ProcessTest {
   }
 
   @Test
+  @CamundaTestComponents(CamundaTestComponent.TASKLIST)
   void shouldFindAndCompleteUserTask()
       throws URISyntaxException, IOException, InterruptedException {
     // given
-    zeebeClient
-        .newDeployResourceCommand()
-        .addProcessModel(
-            Bpmn.createExecutableProcess("process")
-                .startEvent()
-                .userTask("A")
-                .zeebeUserTask()
-                .endEvent()
-                .done(),
-            "process.bpmn")
-        .send()
-        .join();
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("process")
+            .startEvent()
+            .userTask("A")
+            .zeebeUserTask()
+            .endEvent()
+            .done(),
+        "process.bpmn");
 
     final long processInstanceKey =
         zeebeClient
@@ -230,57 +267,10 @@ public class ProcessTest {
             .getProcessInstanceKey();
 
     // when
-    String tasklistEndpoint =
-        "http://"
-            + camundaTestContext.getTasklistContainer().getHost()
-            + ":"
-            + camundaTestContext.getTasklistContainer().getMappedPort(8080);
-
-    HttpRequest authRequest =
-        HttpRequest.newBuilder()
-            .uri(new URI(tasklistEndpoint + "/api/login?username=demo&password=demo"))
-            .POST(HttpRequest.BodyPublishers.noBody())
-            .build();
-
-    HttpClient httpClient =
-        HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .cookieHandler(new CookieManager())
-            .build();
-
-    HttpResponse<String> authResponse =
-        httpClient.send(authRequest, HttpResponse.BodyHandlers.ofString());
-    assertThat(authResponse.statusCode()).isEqualTo(204);
-
-    HttpRequest findTasksRequest =
-        HttpRequest.newBuilder()
-            .uri(new URI(tasklistEndpoint + "/v1/tasks/search"))
-            .header("Content-Type", "application/json")
-            .POST(
-                HttpRequest.BodyPublishers.ofString(
-                    "{\n  \"processInstanceKey\": \"" + processInstanceKey + "\"}"))
-            .build();
-
-    final ObjectMapper objectMapper = new ObjectMapper();
-    final var userTaskKey = new AtomicLong();
-
-    Awaitility.await()
-        .untilAsserted(
-            () -> {
-              HttpResponse<String> findTasksResponse =
-                  httpClient.send(findTasksRequest, HttpResponse.BodyHandlers.ofString());
-
-              assertThat(findTasksResponse.statusCode()).isEqualTo(200);
-
-              List<TaskDto> searchTasksResponse =
-                  objectMapper.readValue(
-                      findTasksResponse.body(), new TypeReference<List<TaskDto>>() {});
-
-              assertThat(searchTasksResponse).isNotEmpty();
-
-              TaskDto task = searchTasksResponse.getFirst();
-              userTaskKey.set(Long.parseLong(task.id()));
-            });
+    final long userTaskKey =
+        camundaTestContext
+            .awaitUserTask(task -> task.processInstanceKey() == processInstanceKey)
+            .id();
 
     String zeebeRestEndpoint =
         "http://"
@@ -290,7 +280,7 @@ public class ProcessTest {
 
     HttpRequest completeTaskRequest =
         HttpRequest.newBuilder()
-            .uri(new URI(zeebeRestEndpoint + "/v1/user-tasks/" + userTaskKey.get() + "/completion"))
+            .uri(new URI(zeebeRestEndpoint + "/v1/user-tasks/" + userTaskKey + "/completion"))
             .header("Content-Type", "application/json")
             .POST(HttpRequest.BodyPublishers.ofString("{\n  \"variables\": {\"x\":1}}"))
             .build();
@@ -305,7 +295,7 @@ public class ProcessTest {
   }
 
   @Test
-  void shouldTriggerTimer() throws URISyntaxException, IOException, InterruptedException {
+  void shouldTriggerTimer() {
     // given
     final BpmnModelInstance process =
         Bpmn.createExecutableProcess("process")
@@ -316,18 +306,11 @@ public class ProcessTest {
             .endEvent()
             .done();
 
-    final List<Long> jobProcessInstanceKeys = new ArrayList<>();
+    final RecordCollector<ActivatedJob> jobs = RecordCollector.forJobs();
 
-    zeebeClient
-        .newStreamJobsCommand()
-        .jobType("debug")
-        .consumer(
-            job -> {
-              jobProcessInstanceKeys.add(job.getProcessInstanceKey());
-            })
-        .send();
+    zeebeClient.newStreamJobsCommand().jobType("debug").consumer(jobs).send();
 
-    zeebeClient.newDeployResourceCommand().addProcessModel(process, "process.bpmn").send().join();
+    camundaTestContext.deploy(process, "process.bpmn");
 
     final long processInstanceKey =
         zeebeClient
@@ -339,33 +322,50 @@ public class ProcessTest {
             .getProcessInstanceKey();
 
     // when
-    String zeebeManagementEndpoint =
-        "http://"
-            + camundaTestContext.getZeebeContainer().getHost()
-            + ":"
-            + camundaTestContext.getZeebeContainer().getMappedPort(9600);
+    camundaTestContext.getClock().advance(Duration.ofHours(1));
 
-    HttpRequest request =
-        HttpRequest.newBuilder()
-            .uri(new URI(zeebeManagementEndpoint + "/actuator/clock/add"))
-            .header("Content-Type", "application/json")
-            .POST(
-                HttpRequest.BodyPublishers.ofString(
-                    "{\n  \"offsetMilli\": " + Duration.ofHours(1).toMillis() + "}"))
-            .build();
+    // then
+    final ActivatedJob job =
+        jobs.awaitFirst(
+            RecordCollector.JOBS_BY_PROCESS_INSTANCE_KEY,
+            processInstanceKey,
+            Duration.ofSeconds(10));
 
-    HttpResponse<String> response =
-        HttpClient.newBuilder().build().send(request, HttpResponse.BodyHandlers.ofString());
-    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(job.getElementId()).isEqualTo("debug");
+  }
+
+  @Test
+  void shouldStepThroughTimers() {
+    // given
+    camundaTestContext.deploy(
+        Bpmn.createExecutableProcess("escalation")
+            .startEvent()
+            .intermediateCatchEvent("first-reminder")
+            .timerWithDuration("P3D")
+            .intermediateCatchEvent("escalation")
+            .timerWithDuration("P2D")
+            .endEvent()
+            .done(),
+        "escalation.bpmn");
+
+    final ZeebeFuture<ProcessInstanceResult> resultFuture =
+        zeebeClient
+            .newCreateInstanceCommand()
+            .bpmnProcessId("escalation")
+            .latestVersion()
+            .withResult()
+            .requestTimeout(Duration.ofMinutes(1))
+            .send();
+
+    // when
+    final Instant start = camundaTestContext.getClock().getCurrentTime();
+
+    camundaTestContext.getClock().stepToNextTimer();
+    final Instant end = camundaTestContext.getClock().stepToNextTimer();
 
     // then
-    Awaitility.await()
-        .untilAsserted(
-            () -> {
-              assertThat(jobProcessInstanceKeys).contains(processInstanceKey);
-            });
-  }
+    assertThat(Duration.between(start, end)).isGreaterThanOrEqualTo(Duration.ofDays(5));
 
-  @JsonIgnoreProperties(ignoreUnknown = true)
-  record TaskDto(String id) {}
+    assertThat(resultFuture.join().getProcessInstanceKey()).isPositive();
+  }
 }
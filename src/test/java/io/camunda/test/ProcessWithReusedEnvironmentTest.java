@@ -15,6 +15,8 @@ public class ProcessWithReusedEnvironmentTest {
 
   private static ZeebeClient ZEEBE_CLIENT;
 
+  private static CamundaTestContext CAMUNDA_TEST_CONTEXT;
+
   @Test
   void shouldStartContainers() {
     assertThat(ZEEBE_CLIENT).isNotNull();
@@ -41,12 +43,7 @@ public class ProcessWithReusedEnvironmentTest {
         Bpmn.createExecutableProcess("process").startEvent().endEvent().done();
 
     // when
-    final DeploymentEvent deploymentEvent =
-        ZEEBE_CLIENT
-            .newDeployResourceCommand()
-            .addProcessModel(process, "process.bpmn")
-            .send()
-            .join();
+    final DeploymentEvent deploymentEvent = CAMUNDA_TEST_CONTEXT.deploy(process, "process.bpmn");
 
     // then
     final ProcessInstanceResult processInstanceResult =
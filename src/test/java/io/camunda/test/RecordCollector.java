@@ -0,0 +1,367 @@
+package io.camunda.test;
+
+import io.camunda.zeebe.client.api.response.ActivatedJob;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.awaitility.core.ConditionTimeoutException;
+
+/**
+ * Collects the items of a stream (e.g. the jobs of a job stream) from any number of threads. The
+ * items are appended to a log of fixed-size chunks and linked into hash indexes with primitive
+ * keys, so that adding an item doesn't take a lock or box its keys. Waiting threads are woken up
+ * when an item is added.
+ *
+ * @param <T> the type of the items
+ */
+public final class RecordCollector<T> implements Consumer<T> {
+
+  public static final LongIndex<ActivatedJob> JOBS_BY_PROCESS_INSTANCE_KEY =
+      new LongIndex<>("processInstanceKey", ActivatedJob::getProcessInstanceKey);
+  public static final StringIndex<ActivatedJob> JOBS_BY_ELEMENT_ID =
+      new StringIndex<>("elementId", ActivatedJob::getElementId);
+  public static final StringIndex<ActivatedJob> JOBS_BY_TYPE =
+      new StringIndex<>("type", ActivatedJob::getType);
+
+  private static final int CHUNK_BITS = 12;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int MAX_CHUNKS = 1 << 14;
+  private static final int BUCKETS = 1 << 14;
+
+  private final AtomicReferenceArray<Object[]> items = new AtomicReferenceArray<>(MAX_CHUNKS);
+  private final AtomicInteger reserved = new AtomicInteger();
+  private final AtomicInteger published = new AtomicInteger();
+
+  private final Index<T>[] indexes;
+  private final IndexTable[] tables;
+
+  private final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
+
+  @SafeVarargs
+  public RecordCollector(final Index<T>... indexes) {
+    this.indexes = indexes.clone();
+    tables = new IndexTable[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      tables[i] = new IndexTable();
+    }
+  }
+
+  /** Returns a collector for jobs that is indexed by process instance key, element id and type. */
+  public static RecordCollector<ActivatedJob> forJobs() {
+    return new RecordCollector<>(JOBS_BY_PROCESS_INSTANCE_KEY, JOBS_BY_ELEMENT_ID, JOBS_BY_TYPE);
+  }
+
+  @Override
+  public void accept(final T item) {
+    add(item);
+  }
+
+  public void add(final T item) {
+    Objects.requireNonNull(item, "item must not be null");
+
+    // compute the keys first, a failing key function must not leave a gap in the log
+    final long[] hashes = new long[indexes.length];
+    for (int i = 0; i < indexes.length; i++) {
+      hashes[i] = indexes[i].hash(item);
+    }
+
+    final int position = reserved.getAndIncrement();
+    final int chunk = position >>> CHUNK_BITS;
+    if (chunk >= MAX_CHUNKS) {
+      throw new IllegalStateException("The collector is full");
+    }
+
+    getOrCreateChunk(items, chunk, () -> new Object[CHUNK_SIZE])[position & CHUNK_MASK] = item;
+
+    for (int i = 0; i < indexes.length; i++) {
+      tables[i].insert(position, hashes[i]);
+    }
+
+    // publish the items in the order of their positions, so that readers see no gaps
+    while (!published.compareAndSet(position, position + 1)) {
+      Thread.onSpinWait();
+    }
+
+    if (!waiters.isEmpty()) {
+      waiters.forEach(LockSupport::unpark);
+    }
+  }
+
+  public int size() {
+    return published.get();
+  }
+
+  /** Returns all items in the order in which they were added. */
+  public List<T> getAll() {
+    final int size = published.get();
+    final List<T> result = new ArrayList<>(size);
+    for (int position = 0; position < size; position++) {
+      result.add(get(position));
+    }
+    return result;
+  }
+
+  /** Returns the items with the key, in the order in which they were added. */
+  public List<T> find(final LongIndex<T> index, final long key) {
+    return find(index, key, item -> true);
+  }
+
+  /** Returns the items with the key, in the order in which they were added. */
+  public List<T> find(final StringIndex<T> index, final String key) {
+    return find(index, StringIndex.hashOf(key), item -> Objects.equals(key, index.key(item)));
+  }
+
+  /** Waits until an item with the key is added, and returns the first one. */
+  public T awaitFirst(final LongIndex<T> index, final long key, final Duration timeout) {
+    return await(() -> find(index, key), 1, index.name() + " = " + key, timeout).getFirst();
+  }
+
+  /** Waits until an item with the key is added, and returns the first one. */
+  public T awaitFirst(final StringIndex<T> index, final String key, final Duration timeout) {
+    return await(() -> find(index, key), 1, index.name() + " = " + key, timeout).getFirst();
+  }
+
+  /** Waits until an item with the key that matches the filter is added, and returns it. */
+  public T awaitFirst(
+      final LongIndex<T> index,
+      final long key,
+      final Predicate<T> filter,
+      final Duration timeout) {
+    return await(
+            () -> find(index, key, filter),
+            1,
+            index.name() + " = " + key + " that matches the filter",
+            timeout)
+        .getFirst();
+  }
+
+  /** Waits until an item with the key that matches the filter is added, and returns it. */
+  public T awaitFirst(
+      final StringIndex<T> index,
+      final String key,
+      final Predicate<T> filter,
+      final Duration timeout) {
+    return await(
+            () ->
+                find(
+                    index,
+                    StringIndex.hashOf(key),
+                    item -> Objects.equals(key, index.key(item)) && filter.test(item)),
+            1,
+            index.name() + " = " + key + " that matches the filter",
+            timeout)
+        .getFirst();
+  }
+
+  /** Waits until the given number of items with the key are added, and returns all of them. */
+  public List<T> awaitCount(
+      final LongIndex<T> index, final long key, final int count, final Duration timeout) {
+    return await(() -> find(index, key), count, index.name() + " = " + key, timeout);
+  }
+
+  private List<T> find(final Index<T> index, final long hash, final Predicate<T> filter) {
+    final IndexTable table = tables[indexOf(index)];
+    final List<T> result = new ArrayList<>();
+
+    // the chain links the newest item first
+    for (int entry = table.head(hash); entry != 0; entry = table.next(entry - 1)) {
+      final int position = entry - 1;
+      if (table.key(position) == hash) {
+        final T item = get(position);
+        if (filter.test(item)) {
+          result.add(item);
+        }
+      }
+    }
+
+    Collections.reverse(result);
+    return result;
+  }
+
+  private List<T> await(
+      final Supplier<List<T>> lookup,
+      final int count,
+      final String description,
+      final Duration timeout) {
+    final long deadline = System.nanoTime() + timeout.toNanos();
+    final Thread thread = Thread.currentThread();
+
+    waiters.add(thread);
+    try {
+      while (true) {
+        // check after registering, so that an item that is added concurrently wakes us up
+        final List<T> result = lookup.get();
+        if (result.size() >= count) {
+          return result;
+        }
+
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          throw new ConditionTimeoutException(
+              "Expected %d item(s) with %s within %s, but found %d"
+                  .formatted(count, description, timeout, result.size()));
+        }
+        LockSupport.parkNanos(this, remaining);
+
+        if (Thread.interrupted()) {
+          thread.interrupt();
+          throw new IllegalStateException("Interrupted while waiting for " + description);
+        }
+      }
+    } finally {
+      waiters.remove(thread);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T get(final int position) {
+    return (T) items.get(position >>> CHUNK_BITS)[position & CHUNK_MASK];
+  }
+
+  private int indexOf(final Index<T> index) {
+    for (int i = 0; i < indexes.length; i++) {
+      if (indexes[i] == index) {
+        return i;
+      }
+    }
+    throw new IllegalArgumentException("The collector has no index '%s'".formatted(index.name()));
+  }
+
+  private static <C> C getOrCreateChunk(
+      final AtomicReferenceArray<C> chunks, final int chunk, final Supplier<C> factory) {
+    final C existing = chunks.get(chunk);
+    if (existing != null) {
+      return existing;
+    }
+
+    final C created = factory.get();
+    return chunks.compareAndSet(chunk, null, created) ? created : chunks.get(chunk);
+  }
+
+  /**
+   * A hash table with a chain per bucket. The heads of the buckets, and the keys and the next
+   * entries of the items, are stored in primitive arrays. An entry is the position of an item plus
+   * one, so that zero marks the end of a chain.
+   */
+  private static final class IndexTable {
+
+    private final AtomicIntegerArray heads = new AtomicIntegerArray(BUCKETS);
+    private final AtomicReferenceArray<long[]> keys = new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicReferenceArray<int[]> nexts = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    private void insert(final int position, final long key) {
+      final int chunk = position >>> CHUNK_BITS;
+      final long[] keyChunk = getOrCreateChunk(keys, chunk, () -> new long[CHUNK_SIZE]);
+      final int[] nextChunk = getOrCreateChunk(nexts, chunk, () -> new int[CHUNK_SIZE]);
+      keyChunk[position & CHUNK_MASK] = key;
+
+      // the CAS publishes the key and the next entry to the readers of the head
+      final int bucket = bucket(key);
+      int head;
+      do {
+        head = heads.get(bucket);
+        nextChunk[position & CHUNK_MASK] = head;
+      } while (!heads.compareAndSet(bucket, head, position + 1));
+    }
+
+    private int head(final long key) {
+      return heads.get(bucket(key));
+    }
+
+    private int next(final int position) {
+      return nexts.get(position >>> CHUNK_BITS)[position & CHUNK_MASK];
+    }
+
+    private long key(final int position) {
+      return keys.get(position >>> CHUNK_BITS)[position & CHUNK_MASK];
+    }
+
+    private static int bucket(final long key) {
+      long hash = key * 0x9E3779B97F4A7C15L;
+      hash ^= hash >>> 32;
+      return (int) hash & (BUCKETS - 1);
+    }
+  }
+
+  /** An index of the collector. The key of an item is a primitive {@code long}. */
+  public abstract static sealed class Index<T> permits LongIndex, StringIndex {
+
+    private final String name;
+
+    private Index(final String name) {
+      this.name = name;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    abstract long hash(T item);
+  }
+
+  /** An index by a {@code long} key, e.g. a process instance key. */
+  public static final class LongIndex<T> extends Index<T> {
+
+    private final ToLongFunction<T> key;
+
+    public LongIndex(final String name, final ToLongFunction<T> key) {
+      super(name);
+      this.key = key;
+    }
+
+    @Override
+    long hash(final T item) {
+      return key.applyAsLong(item);
+    }
+  }
+
+  /**
+   * An index by a {@code String} key, e.g. a job type. The key is indexed by its 64-bit hash, and
+   * compared on lookup.
+   */
+  public static final class StringIndex<T> extends Index<T> {
+
+    private final Function<T, String> key;
+
+    public StringIndex(final String name, final Function<T, String> key) {
+      super(name);
+      this.key = key;
+    }
+
+    private String key(final T item) {
+      return key.apply(item);
+    }
+
+    @Override
+    long hash(final T item) {
+      return hashOf(key(item));
+    }
+
+    // FNV-1a, with fewer collisions than String#hashCode()
+    private static long hashOf(final String key) {
+      if (key == null) {
+        return 0;
+      }
+      long hash = 0xcbf29ce484222325L;
+      for (int i = 0; i < key.length(); i++) {
+        hash ^= key.charAt(i);
+        hash *= 0x100000001b3L;
+      }
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package io.camunda.test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.awaitility.core.ConditionTimeoutException;
+import org.junit.jupiter.api.Test;
+
+public class RecordCollectorTest {
+
+  private static final RecordCollector.LongIndex<Item> BY_KEY =
+      new RecordCollector.LongIndex<>("key", Item::key);
+  private static final RecordCollector.StringIndex<Item> BY_TYPE =
+      new RecordCollector.StringIndex<>("type", Item::type);
+
+  @Test
+  void shouldFindItemsByKey() {
+    // given
+    final RecordCollector<Item> collector = new RecordCollector<>(BY_KEY, BY_TYPE);
+
+    // when
+    collector.add(new Item(1, "a"));
+    collector.add(new Item(2, "b"));
+    collector.add(new Item(1, "b"));
+
+    // then
+    assertThat(collector.find(BY_KEY, 1)).containsExactly(new Item(1, "a"), new Item(1, "b"));
+    assertThat(collector.find(BY_TYPE, "b")).containsExactly(new Item(2, "b"), new Item(1, "b"));
+    assertThat(collector.find(BY_KEY, 3)).isEmpty();
+  }
+
+  @Test
+  void shouldCollectFromConcurrentThreads() {
+    // given
+    final RecordCollector<Item> collector = new RecordCollector<>(BY_KEY, BY_TYPE);
+    final int threads = 4;
+    final int itemsPerThread = 50_000;
+
+    // when
+    try (final ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      CompletableFuture.allOf(
+              IntStream.range(0, threads)
+                  .mapToObj(
+                      thread ->
+                          CompletableFuture.runAsync(
+                              () -> {
+                                for (int i = 0; i < itemsPerThread; i++) {
+                                  collector.add(new Item(i, "thread-" + thread));
+                                }
+                              },
+                              executor))
+                  .toArray(CompletableFuture[]::new))
+          .join();
+    }
+
+    // then
+    assertThat(collector.size()).isEqualTo(threads * itemsPerThread);
+    assertThat(collector.getAll()).hasSize(threads * itemsPerThread).doesNotContainNull();
+    assertThat(collector.find(BY_KEY, 42)).hasSize(threads);
+    assertThat(collector.find(BY_TYPE, "thread-1"))
+        .hasSize(itemsPerThread)
+        .extracting(Item::key)
+        .isSorted();
+  }
+
+  @Test
+  void shouldWakeUpWaiterOnInsert() {
+    // given
+    final RecordCollector<Item> collector = new RecordCollector<>(BY_KEY, BY_TYPE);
+
+    final CompletableFuture<Item> waiter =
+        CompletableFuture.supplyAsync(
+            () -> collector.awaitFirst(BY_KEY, 7, Duration.ofSeconds(10)));
+
+    // when
+    collector.add(new Item(1, "a"));
+    collector.add(new Item(7, "b"));
+
+    // then
+    assertThat(waiter.join()).isEqualTo(new Item(7, "b"));
+  }
+
+  @Test
+  void shouldAwaitItemThatMatchesTheFilter() {
+    // given
+    final RecordCollector<Item> collector = new RecordCollector<>(BY_KEY, BY_TYPE);
+
+    final CompletableFuture<Item> waiter =
+        CompletableFuture.supplyAsync(
+            () ->
+                collector.awaitFirst(
+                    BY_KEY, 7, item -> item.type().equals("c"), Duration.ofSeconds(10)));
+
+    // when
+    collector.add(new Item(7, "b"));
+    collector.add(new Item(7, "c"));
+
+    // then
+    assertThat(waiter.join()).isEqualTo(new Item(7, "c"));
+  }
+
+  @Test
+  void shouldAwaitItemWithStringKeyThatMatchesTheFilter() {
+    // given
+    final RecordCollector<Item> collector = new RecordCollector<>(BY_KEY, BY_TYPE);
+
+    final CompletableFuture<Item> waiter =
+        CompletableFuture.supplyAsync(
+            () ->
+                collector.awaitFirst(
+                    BY_TYPE, "c", item -> item.key() > 1, Duration.ofSeconds(10)));
+
+    // when
+    collector.add(new Item(1, "c"));
+    collector.add(new Item(2, "b"));
+    collector.add(new Item(3, "c"));
+
+    // then
+    assertThat(waiter.join()).isEqualTo(new Item(3, "c"));
+  }
+
+  @Test
+  void shouldFailIfNoItemIsAddedInTime() {
+    // given
+    final RecordCollector<Item> collector = new RecordCollector<>(BY_KEY, BY_TYPE);
+
+    // when/then
+    assertThatThrownBy(() -> collector.awaitFirst(BY_TYPE, "missing", Duration.ofMillis(50)))
+        .isInstanceOf(ConditionTimeoutException.class);
+  }
+
+  private record Item(long key, String type) {}
+}
@@ -0,0 +1,19 @@
+package io.camunda.test;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.protocol.record.Record;
+import io.camunda.zeebe.protocol.record.ValueType;
+import java.util.List;
+
+/**
+ * The records that the broker exported, either streamed to the test JVM or written to
+ * Elasticsearch. See {@link CamundaTestContext#getRecordSource()}.
+ */
+public interface RecordSource {
+
+  /** Waits until the records that the broker wrote so far are readable. */
+  void awaitExported(ZeebeClient zeebeClient);
+
+  /** Returns the records of the value type, e.g. TIMER, in the order of the log. */
+  List<Record<?>> getRecords(ValueType valueType);
+}
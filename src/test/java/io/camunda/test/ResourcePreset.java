@@ -0,0 +1,114 @@
+package io.camunda.test;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import org.testcontainers.containers.GenericContainer;
+
+/**
+ * The resource budgets of the containers of a stack: a memory limit, a CPU quota and the heap of
+ * the JVM. The budgets make the footprint of a stack predictable, so that the number of stacks
+ * that fit on a machine can be computed.
+ */
+public enum ResourcePreset {
+  /** No limits, the containers use the defaults of their images. */
+  UNLIMITED(Map.of()),
+  /** Budgets that start the stack about as fast as without limits. */
+  STANDARD(
+      Map.of(
+          "elasticsearch", new Budget(1024, 1.0, "512m"),
+          "zeebe", new Budget(1024, 1.0, "512m"),
+          "operate", new Budget(768, 0.5, "384m"),
+          "tasklist", new Budget(768, 0.5, "384m"),
+          "connectors", new Budget(512, 0.5, "256m"),
+          "postgres", new Budget(256, 0.5, null),
+          "keycloak", new Budget(768, 0.5, "384m"),
+          "identity", new Budget(512, 0.5, "256m"))),
+  /** The smallest budgets that run the tests, for packing many stacks on one machine. */
+  SMALL(
+      Map.of(
+          "elasticsearch", new Budget(768, 0.5, "384m"),
+          "zeebe", new Budget(768, 0.5, "384m"),
+          "operate", new Budget(640, 0.5, "320m"),
+          "tasklist", new Budget(640, 0.5, "320m"),
+          "connectors", new Budget(384, 0.25, "192m"),
+          "postgres", new Budget(128, 0.25, null),
+          "keycloak", new Budget(640, 0.5, "320m"),
+          "identity", new Budget(384, 0.25, "192m")));
+
+  /** The system property to select the preset, e.g. {@code -Dcamunda.test.resources=small}. */
+  public static final String RESOURCES_PROPERTY = "camunda.test.resources";
+
+  private static final long MB = 1024 * 1024;
+
+  private final Map<String, Budget> budgets;
+
+  ResourcePreset(final Map<String, Budget> budgets) {
+    this.budgets = budgets;
+  }
+
+  public static ResourcePreset fromSystemProperty() {
+    final String preset = System.getProperty(RESOURCES_PROPERTY);
+    if (preset == null || preset.isBlank()) {
+      return UNLIMITED;
+    }
+    return valueOf(preset.trim().toUpperCase(Locale.ROOT));
+  }
+
+  public Optional<Budget> getBudget(final String container) {
+    return Optional.ofNullable(budgets.get(container));
+  }
+
+  /**
+   * Applies the budget of the container, if the preset has one. The heap is passed to the JVM by
+   * the given environment variable, e.g. {@code JAVA_OPTS}, and overrides a heap that is set
+   * before.
+   */
+  public void applyTo(
+      final GenericContainer<?> container, final String name, final String javaOptsEnv) {
+    getBudget(name)
+        .ifPresent(
+            budget -> {
+              container.withCreateContainerCmdModifier(
+                  cmd ->
+                      cmd.getHostConfig()
+                          .withMemory(budget.memoryMb() * MB)
+                          // no swap, exceeding the limit must fail instead of slowing down
+                          .withMemorySwap(budget.memoryMb() * MB)
+                          .withNanoCPUs((long) (budget.cpus() * 1_000_000_000L)));
+
+              if (budget.heap() != null && javaOptsEnv != null) {
+                container.addEnv(
+                    javaOptsEnv, "-Xms%s -Xmx%s".formatted(budget.heap(), budget.heap()));
+              }
+            });
+  }
+
+  /** Returns the memory of the containers in bytes, if the preset has a budget for all of them. */
+  public OptionalLong getMemoryLimit(final Collection<String> containers) {
+    if (!budgets.keySet().containsAll(containers)) {
+      return OptionalLong.empty();
+    }
+    return OptionalLong.of(
+        containers.stream().mapToLong(container -> budgets.get(container).memoryMb() * MB).sum());
+  }
+
+  /** Returns the CPUs of the containers, if the preset has a budget for all of them. */
+  public OptionalDouble getCpuLimit(final Collection<String> containers) {
+    if (!budgets.keySet().containsAll(containers)) {
+      return OptionalDouble.empty();
+    }
+    return OptionalDouble.of(
+        containers.stream().mapToDouble(container -> budgets.get(container).cpus()).sum());
+  }
+
+  /**
+   * @param memoryMb the memory limit of the container, without swap
+   * @param cpus the CPU quota of the container
+   * @param heap the heap of the JVM, e.g. {@code 512m}, or {@code null} if it is not a JVM
+   */
+  public record Budget(long memoryMb, double cpus, String heap) {}
+}
@@ -0,0 +1,66 @@
+package io.camunda.test;
+
+import com.github.dockerjava.api.DockerClient;
+import java.util.Map;
+import org.junit.rules.ExternalResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.Network;
+
+/**
+ * A Docker network with a fixed name that outlives the test run. The next run attaches to the
+ * existing network, which is required to reuse the containers of the network. The network is not
+ * removed on {@link #close()}.
+ */
+public class ReusableNetwork extends ExternalResource implements Network {
+
+  public static final String STACK_LABEL = "io.camunda.test.stack";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private final String name;
+  private final String stackId;
+  private String id;
+
+  public ReusableNetwork(final String name, final String stackId) {
+    this.name = name;
+    this.stackId = stackId;
+  }
+
+  @Override
+  public synchronized String getId() {
+    if (id == null) {
+      id = findOrCreateNetwork();
+    }
+    return id;
+  }
+
+  private String findOrCreateNetwork() {
+    final DockerClient dockerClient = DockerClientFactory.instance().client();
+
+    // the name filter matches by prefix
+    final var existingNetwork =
+        dockerClient.listNetworksCmd().withNameFilter(name).exec().stream()
+            .filter(network -> name.equals(network.getName()))
+            .findFirst();
+    if (existingNetwork.isPresent()) {
+      LOGGER.info("Reuse the network '{}'", name);
+      return existingNetwork.get().getId();
+    }
+
+    LOGGER.info("Create the reusable network '{}'", name);
+    return dockerClient
+        .createNetworkCmd()
+        .withName(name)
+        .withCheckDuplicate(true)
+        .withLabels(Map.of(STACK_LABEL, stackId))
+        .exec()
+        .getId();
+  }
+
+  @Override
+  public void close() {
+    // keep the network for the next run
+  }
+}
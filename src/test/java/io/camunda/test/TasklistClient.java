@@ -0,0 +1,60 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A client for the public API of Tasklist that uses the session of the demo user. */
+public class TasklistClient {
+
+  private static final ObjectReader TASKS_READER =
+      WebAppSession.readerFor(new TypeReference<List<Task>>() {});
+  private static final ObjectWriter SORT_VALUES_WRITER = new ObjectMapper().writer();
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final WebAppSession session;
+
+  public TasklistClient(final String endpoint) {
+    session = new WebAppSession(endpoint);
+  }
+
+  /** Returns the tasks of all states, the latest first. */
+  public List<Task> searchTasks() throws IOException, InterruptedException {
+    final List<Task> tasks = new ArrayList<>();
+    String searchAfter = "";
+    while (true) {
+      final List<Task> page =
+          session.post(
+              "/v1/tasks/search",
+              "{\"pageSize\": %d%s}".formatted(PAGE_SIZE, searchAfter),
+              TASKS_READER);
+      tasks.addAll(page);
+
+      final List<String> sortValues = page.isEmpty() ? null : page.getLast().sortValues();
+      if (page.size() < PAGE_SIZE || sortValues == null) {
+        return tasks;
+      }
+      // the next page starts after the last task of this page
+      searchAfter = ", \"searchAfter\": " + SORT_VALUES_WRITER.writeValueAsString(sortValues);
+    }
+  }
+
+  public WebAppSession getSession() {
+    return session;
+  }
+
+  public record Task(
+      long id,
+      String name,
+      String taskDefinitionId,
+      String taskState,
+      long processDefinitionKey,
+      long processInstanceKey,
+      String tenantId,
+      List<String> sortValues) {}
+}
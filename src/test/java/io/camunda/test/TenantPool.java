@@ -0,0 +1,143 @@
+package io.camunda.test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of tenants that are created in Identity when the multi-tenant stack is started. Every
+ * test leases its own tenant, so tests can share the stack and still don't see each other's data.
+ * A tenant is returned to the pool after its data is cleaned up.
+ */
+public class TenantPool {
+
+  public static final String TENANT_ID_PREFIX = "test-tenant-";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private final CamundaTestMultiInstanceContext context;
+  private final HttpClient httpClient;
+  private final BlockingQueue<String> availableTenants = new LinkedBlockingQueue<>();
+
+  public TenantPool(final CamundaTestMultiInstanceContext context, final HttpClient httpClient) {
+    this.context = context;
+    this.httpClient = httpClient;
+  }
+
+  /** Creates the tenants in Identity and grants the Zeebe client access to them. */
+  public void provision(final int size) {
+    final Instant start = Instant.now();
+    final String accessToken = context.getIdentityToken();
+
+    final List<String> tenantIds =
+        IntStream.rangeClosed(1, size).mapToObj(i -> TENANT_ID_PREFIX + i).toList();
+
+    final CompletableFuture<?>[] provisioning =
+        tenantIds.stream()
+            .map(
+                tenantId ->
+                    sendAsync(
+                            accessToken,
+                            "/api/tenants",
+                            """
+                            {"tenantId": "%s", "name": "%s"}"""
+                                .formatted(tenantId, tenantId))
+                        .thenCompose(
+                            ignore ->
+                                sendAsync(
+                                    accessToken,
+                                    "/api/tenants/%s/applications".formatted(tenantId),
+                                    """
+                                    {"applicationId": "zeebe"}""")))
+            .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(provisioning).join();
+
+    availableTenants.addAll(tenantIds);
+
+    LOGGER.info("Provisioned {} tenants in {}", size, Duration.between(start, Instant.now()));
+  }
+
+  /** Waits until a tenant is available and leases it until the lease is closed. */
+  public Lease lease() {
+    try {
+      final String tenantId = availableTenants.poll(5, TimeUnit.MINUTES);
+      if (tenantId == null) {
+        throw new IllegalStateException("No tenant available in the pool");
+      }
+      return new Lease(this, tenantId);
+
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a tenant", e);
+    }
+  }
+
+  private void release(final String tenantId) {
+    final var stateCleaner =
+        new EnvironmentStateCleaner(
+            httpClient, context.getElasticsearchContainer().getHttpHostAddress());
+
+    try {
+      stateCleaner.cancelActiveProcessInstances(context.getZeebeClient(tenantId), tenantId);
+      stateCleaner.deleteData(tenantId);
+    } finally {
+      // a failed cleanup fails the test that released the tenant, but must not shrink the pool
+      availableTenants.offer(tenantId);
+    }
+  }
+
+  private CompletableFuture<Void> sendAsync(
+      final String accessToken, final String path, final String body) {
+    final HttpRequest request =
+        HttpRequest.newBuilder()
+            .uri(URI.create("http://" + context.getIdentityAddress() + path))
+            .header("Content-Type", "application/json")
+            .header("Authorization", "Bearer " + accessToken)
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenAccept(
+            response -> {
+              // the tenant exists already if the containers are reused from a previous run
+              if (response.statusCode() >= 300 && response.statusCode() != 409) {
+                throw new IllegalStateException(
+                    "Request to '%s' failed with status %d: %s"
+                        .formatted(path, response.statusCode(), response.body()));
+              }
+            });
+  }
+
+  public static final class Lease implements ExtensionContext.Store.CloseableResource {
+
+    private final TenantPool pool;
+    private final String tenantId;
+
+    private Lease(final TenantPool pool, final String tenantId) {
+      this.pool = pool;
+      this.tenantId = tenantId;
+    }
+
+    public String getTenantId() {
+      return tenantId;
+    }
+
+    @Override
+    public void close() {
+      pool.release(tenantId);
+    }
+  }
+}
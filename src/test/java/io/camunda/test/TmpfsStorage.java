@@ -0,0 +1,56 @@
+package io.camunda.test;
+
+import io.zeebe.containers.ZeebeContainer;
+import java.util.Map;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+
+/**
+ * Mounts the data directories of the stateful containers as tmpfs, and turns off the durability
+ * that the tests don't need. The data of a test stack is thrown away, so it doesn't have to survive
+ * a crash, and writing it to the overlay filesystem only costs disk I/O and fsyncs.
+ */
+public final class TmpfsStorage {
+
+  private static final String ZEEBE_DATA = "/usr/local/zeebe/data";
+  private static final String ELASTICSEARCH_DATA = "/usr/share/elasticsearch/data";
+  private static final String POSTGRES_DATA = "/var/lib/postgresql/data";
+
+  private final String mountOptions;
+
+  /**
+   * @param sizeMb the maximum size of every mounted directory
+   */
+  public TmpfsStorage(final int sizeMb) {
+    mountOptions = "rw,size=%dm".formatted(sizeMb);
+  }
+
+  public void configure(final ZeebeContainer container) {
+    container
+        .withTmpFs(Map.of(ZEEBE_DATA, mountOptions))
+        .withEnv("ZEEBE_BROKER_CLUSTER_RAFT_FLUSH_ENABLED", "false")
+        // the free space watermarks of several GB would stop the processing on a small tmpfs
+        .withEnv("ZEEBE_BROKER_DATA_DISK_ENABLEMONITORING", "false");
+  }
+
+  public void configure(final ElasticsearchContainer container) {
+    container
+        .withTmpFs(Map.of(ELASTICSEARCH_DATA, mountOptions))
+        .withEnv("cluster.routing.allocation.disk.threshold_enabled", "false");
+  }
+
+  /** The default data directory of Postgres is mounted, a changed {@code PGDATA} is not. */
+  public void configure(final PostgreSQLContainer<?> container) {
+    // the container runs with fsync=off already
+    container
+        .withTmpFs(Map.of(POSTGRES_DATA, mountOptions))
+        .withCommand(
+            "postgres",
+            "-c",
+            "fsync=off",
+            "-c",
+            "synchronous_commit=off",
+            "-c",
+            "full_page_writes=off");
+  }
+}
@@ -0,0 +1,225 @@
+package io.camunda.test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.awaitility.core.ConditionTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls backends (e.g. Operate or Tasklist) on behalf of all waiting tests. All pending waits for
+ * the same source share one query per tick. Waiters are completed as soon as their condition
+ * matches. The poll interval of a source backs off while no waiter matches.
+ */
+public class VisibilityPoller implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final Duration MIN_INTERVAL = Duration.ofMillis(50);
+  private static final Duration MAX_INTERVAL = Duration.ofSeconds(1);
+
+  private final Map<Source<?>, SourceState<?>> sources = new ConcurrentHashMap<>();
+  private final Runnable beforePoll;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * @param beforePoll invoked before a tick queries the sources, e.g. to flush pending exports
+   */
+  public VisibilityPoller(final Runnable beforePoll) {
+    this.beforePoll = beforePoll;
+
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "camunda-test-poller");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Waits until the matcher finds a result in the data of the source, and returns it. */
+  public <S, T> T await(
+      final Source<S> source, final Function<S, Optional<T>> matcher, final Duration timeout) {
+    return await(source, null, matcher, timeout);
+  }
+
+  /**
+   * Waits until the matcher finds a result in the data of the source, and returns it. The key
+   * (e.g. a process instance key) is passed to the source, so that it can restrict its query to
+   * the keys of the pending waiters.
+   */
+  public <S, T> T await(
+      final Source<S> source,
+      final Long key,
+      final Function<S, Optional<T>> matcher,
+      final Duration timeout) {
+    final Waiter<S, T> waiter = new Waiter<>(key, matcher);
+    register(source, waiter);
+
+    try {
+      return waiter.future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+    } catch (final TimeoutException e) {
+      waiter.future.cancel(false);
+      throw new ConditionTimeoutException(
+          "Condition on '%s' was not fulfilled within %s".formatted(source.name(), timeout));
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <S> void register(final Source<S> source, final Waiter<S, ?> waiter) {
+    final SourceState<S> state =
+        (SourceState<S>) sources.computeIfAbsent(source, key -> new SourceState<>(source));
+    state.waiters.add(waiter);
+
+    // poll immediately for a new waiter, also if the next poll is delayed by the backoff. The new
+    // generation of polls replaces the scheduled one.
+    synchronized (state) {
+      state.interval = MIN_INTERVAL;
+      final long generation = ++state.generation;
+      scheduler.execute(() -> poll(state, generation));
+    }
+  }
+
+  private <S> void poll(final SourceState<S> state, final long generation) {
+    synchronized (state) {
+      if (generation != state.generation) {
+        return;
+      }
+    }
+
+    state.waiters.removeIf(waiter -> waiter.future.isDone());
+    if (state.waiters.isEmpty()) {
+      // a new waiter starts a new generation
+      return;
+    }
+
+    boolean matched = false;
+    try {
+      beforePoll.run();
+      final Set<Long> keys = new HashSet<>();
+      state.waiters.forEach(
+          waiter -> {
+            if (waiter.key != null) {
+              keys.add(waiter.key);
+            }
+          });
+      final S snapshot = state.source.fetch(keys);
+
+      for (final Waiter<S, ?> waiter : state.waiters) {
+        matched |= waiter.test(snapshot);
+      }
+    } catch (final Exception e) {
+      LOGGER.debug("Failed to poll '{}', retry", state.source.name(), e);
+    }
+
+    synchronized (state) {
+      if (generation != state.generation) {
+        return;
+      }
+      state.interval = matched ? MIN_INTERVAL : backoff(state.interval);
+      scheduler.schedule(
+          () -> poll(state, generation), state.interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static Duration backoff(final Duration interval) {
+    final Duration next = interval.multipliedBy(2);
+    return next.compareTo(MAX_INTERVAL) > 0 ? MAX_INTERVAL : next;
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+
+  /** A backend query whose result is shared by all waiters of a tick. */
+  public interface Source<S> {
+
+    String name();
+
+    /**
+     * @param keys the keys of the pending waiters, the waiters without a key are not included
+     */
+    S fetch(Set<Long> keys) throws Exception;
+
+    static <S> Source<S> of(final String name, final Fetcher<S> fetcher) {
+      return forKeys(name, keys -> fetcher.fetch());
+    }
+
+    /** Returns a source whose query depends on the keys of the pending waiters. */
+    static <S> Source<S> forKeys(final String name, final KeyedFetcher<S> fetcher) {
+      return new Source<>() {
+        @Override
+        public String name() {
+          return name;
+        }
+
+        @Override
+        public S fetch(final Set<Long> keys) throws Exception {
+          return fetcher.fetch(keys);
+        }
+      };
+    }
+  }
+
+  @FunctionalInterface
+  public interface Fetcher<S> {
+    S fetch() throws Exception;
+  }
+
+  @FunctionalInterface
+  public interface KeyedFetcher<S> {
+    S fetch(Set<Long> keys) throws Exception;
+  }
+
+  private static final class SourceState<S> {
+    private final Source<S> source;
+    private final List<Waiter<S, ?>> waiters = new CopyOnWriteArrayList<>();
+    private Duration interval = MIN_INTERVAL;
+    private long generation = 0;
+
+    private SourceState(final Source<S> source) {
+      this.source = source;
+    }
+  }
+
+  private static final class Waiter<S, T> {
+    private final Long key;
+    private final Function<S, Optional<T>> matcher;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private Waiter(final Long key, final Function<S, Optional<T>> matcher) {
+      this.key = key;
+      this.matcher = matcher;
+    }
+
+    private boolean test(final S snapshot) {
+      if (future.isDone()) {
+        return false;
+      }
+
+      final Optional<T> result = matcher.apply(snapshot);
+      result.ifPresent(future::complete);
+      return result.isPresent();
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An HTTP session of the demo user with a web app (i.e. Operate or Tasklist). The session keeps
+ * its HTTP/1.1 connections alive between requests and logs in again only if the web app rejects
+ * the session cookie. Responses are decoded from the stream with a prepared reader.
+ */
+public class WebAppSession {
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  private final String endpoint;
+  private final HttpClient httpClient;
+  private final AtomicInteger logins = new AtomicInteger();
+  private volatile boolean loggedIn = false;
+
+  public WebAppSession(final String endpoint) {
+    this.endpoint = endpoint;
+
+    httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .cookieHandler(new CookieManager())
+            .build();
+  }
+
+  /** Returns a reader for the response type. Readers are immutable and can be shared. */
+  public static ObjectReader readerFor(final TypeReference<?> type) {
+    return OBJECT_MAPPER.readerFor(type);
+  }
+
+  public <T> T get(final String path, final ObjectReader reader)
+      throws IOException, InterruptedException {
+    return send(() -> HttpRequest.newBuilder().uri(URI.create(endpoint + path)).GET(), reader);
+  }
+
+  public <T> T post(final String path, final String body, final ObjectReader reader)
+      throws IOException, InterruptedException {
+    return send(
+        () ->
+            HttpRequest.newBuilder()
+                .uri(URI.create(endpoint + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)),
+        reader);
+  }
+
+  /** Returns how often the session logged in, i.e. one plus the number of expired sessions. */
+  public int getLogins() {
+    return logins.get();
+  }
+
+  private <T> T send(final RequestFactory request, final ObjectReader reader)
+      throws IOException, InterruptedException {
+    if (!loggedIn) {
+      login();
+    }
+
+    HttpResponse<InputStream> response = sendRequest(request);
+    if (response.statusCode() == 401) {
+      // the session is expired
+      response.body().close();
+      loggedIn = false;
+      login();
+      response = sendRequest(request);
+    }
+
+    try (final InputStream body = response.body()) {
+      if (response.statusCode() != 200) {
+        final String error = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        throw new IOException(
+            "Request failed with status %d: %s".formatted(response.statusCode(), error));
+      }
+      return reader.readValue(body);
+    }
+  }
+
+  private HttpResponse<InputStream> sendRequest(final RequestFactory request)
+      throws IOException, InterruptedException {
+    return httpClient.send(request.create().build(), HttpResponse.BodyHandlers.ofInputStream());
+  }
+
+  private synchronized void login() throws IOException, InterruptedException {
+    if (loggedIn) {
+      return;
+    }
+
+    final HttpResponse<Void> response =
+        httpClient.send(
+            HttpRequest.newBuilder()
+                .uri(URI.create(endpoint + "/api/login?username=demo&password=demo"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(),
+            HttpResponse.BodyHandlers.discarding());
+
+    if (response.statusCode() != 204) {
+      throw new IOException("Failed to login with status %d".formatted(response.statusCode()));
+    }
+    logins.incrementAndGet();
+    loggedIn = true;
+  }
+
+  @FunctionalInterface
+  private interface RequestFactory {
+    HttpRequest.Builder create();
+  }
+}
@@ -0,0 +1,106 @@
+package io.camunda.test;
+
+import io.camunda.zeebe.client.CredentialsProvider;
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.impl.ZeebeClientBuilderImpl;
+import io.camunda.zeebe.client.impl.ZeebeClientImpl;
+import io.grpc.ManagedChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the clients of an environment per configuration (tenant and credentials). All clients
+ * share one gRPC channel and one job worker executor, and are closed together with the pool. The
+ * clients must not be closed by the tests, because closing a client shuts down the shared channel.
+ */
+public class ZeebeClientPool implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final int JOB_WORKER_THREADS = 2;
+
+  private final Supplier<String> gatewayAddress;
+  private final Map<ClientConfig, ZeebeClient> clients = new ConcurrentHashMap<>();
+  private final ScheduledThreadPoolExecutor jobWorkerExecutor;
+  private ManagedChannel channel;
+
+  public ZeebeClientPool(final Supplier<String> gatewayAddress) {
+    this.gatewayAddress = gatewayAddress;
+
+    jobWorkerExecutor =
+        (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(JOB_WORKER_THREADS);
+  }
+
+  public ZeebeClient getClient() {
+    return getClient(null, null);
+  }
+
+  /**
+   * Returns the client for the configuration, or creates it.
+   *
+   * @param tenantId the default tenant of the client and its job workers, or {@code null}
+   * @param credentialsProvider the credentials of the client, or {@code null} for plaintext
+   *     without authentication
+   */
+  public ZeebeClient getClient(
+      final String tenantId, final CredentialsProvider credentialsProvider) {
+    return clients.computeIfAbsent(
+        new ClientConfig(tenantId, credentialsProvider), this::createClient);
+  }
+
+  private synchronized ZeebeClient createClient(final ClientConfig clientConfig) {
+    final ZeebeClientBuilderImpl builder = new ZeebeClientBuilderImpl();
+    builder
+        .gatewayAddress(gatewayAddress.get())
+        .usePlaintext()
+        .jobWorkerExecutor(jobWorkerExecutor, false);
+
+    if (clientConfig.credentialsProvider() != null) {
+      builder.credentialsProvider(clientConfig.credentialsProvider());
+    }
+    if (clientConfig.tenantId() != null) {
+      builder
+          .defaultTenantId(clientConfig.tenantId())
+          .defaultJobWorkerTenantIds(List.of(clientConfig.tenantId()));
+    }
+
+    if (channel == null) {
+      // the credentials are applied per call, so the channel can be shared by all clients
+      channel = ZeebeClientImpl.buildChannel(builder);
+    }
+    return new ZeebeClientImpl(builder, channel);
+  }
+
+  public Metrics getMetrics() {
+    return new Metrics(channel != null ? 1 : 0, clients.size(), jobWorkerExecutor.getPoolSize());
+  }
+
+  @Override
+  public void close() {
+    LOGGER.info("Closing Zeebe clients: {}", getMetrics());
+
+    clients.values().forEach(ZeebeClient::close);
+    clients.clear();
+
+    if (channel != null) {
+      channel.shutdownNow();
+      try {
+        channel.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    jobWorkerExecutor.shutdownNow();
+  }
+
+  private record ClientConfig(String tenantId, CredentialsProvider credentialsProvider) {}
+
+  public record Metrics(int channels, int clients, int jobWorkerThreads) {}
+}
@@ -0,0 +1,298 @@
+package io.camunda.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.camunda.zeebe.protocol.record.Record;
+import io.camunda.zeebe.protocol.record.RecordType;
+import io.camunda.zeebe.protocol.record.ValueType;
+import io.camunda.zeebe.protocol.record.intent.TimerIntent;
+import io.camunda.zeebe.protocol.record.value.TimerRecordValue;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.awaitility.Awaitility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Controls the clock of Zeebe, either of the broker in a container or of the embedded engine.
+ * Moving the clock returns after Zeebe triggered all timers that became due. The timers are read
+ * from the records of Zeebe: the records that the broker exports, see {@link RecordSource}, or
+ * the records of the embedded engine. Before the timers are read, the clock waits until all
+ * records that were written before the clock moved are readable.
+ */
+public class ZeebeClock {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.camunda.test");
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private static final Duration TIMER_TIMEOUT = Duration.ofSeconds(30);
+
+  private final Control control;
+
+  private ZeebeClock(final Control control) {
+    this.control = control;
+  }
+
+  /** Returns the clock of the broker in the Zeebe container, which is moved by its actuator. */
+  public static ZeebeClock forContainer(
+      final CamundaTestContext context, final HttpClient httpClient) {
+    return new ZeebeClock(new ContainerControl(context, httpClient));
+  }
+
+  /** Returns the clock of the embedded engine. It can only be moved forward. */
+  public static ZeebeClock forEmbeddedEngine(final EmbeddedZeebeEngine engine) {
+    return new ZeebeClock(new EmbeddedEngineControl(engine));
+  }
+
+  public Instant getCurrentTime() {
+    return control.getCurrentTime();
+  }
+
+  /** Moves the clock forward and waits until the timers that became due are triggered. */
+  public Instant advance(final Duration duration) {
+    final Instant time = control.add(duration);
+    awaitDueTimersTriggered(time);
+    return time;
+  }
+
+  /**
+   * Stops the clock at the given time and waits until the timers that became due are triggered. The
+   * clock doesn't move until it is advanced, pinned again, or reset. The clock of the embedded
+   * engine can't be stopped.
+   */
+  public Instant pin(final Instant time) {
+    final Instant pinnedTime = control.pin(time);
+    awaitDueTimersTriggered(pinnedTime);
+    return pinnedTime;
+  }
+
+  /**
+   * Moves the clock to the due date of the next pending timer and waits until it is triggered. If
+   * no timer is pending yet, it waits until a timer is created.
+   */
+  public Instant stepToNextTimer() {
+    control.awaitRecords();
+
+    final Instant nextDueDate =
+        Awaitility.await("a timer is pending")
+            .atMost(TIMER_TIMEOUT)
+            .pollDelay(Duration.ZERO)
+            .pollInterval(Duration.ofMillis(50))
+            .until(
+                () -> findPendingTimers().values().stream().min(Instant::compareTo),
+                Optional::isPresent)
+            .orElseThrow();
+
+    final Duration offset = Duration.between(getCurrentTime(), nextDueDate);
+    return advance(offset.isNegative() ? Duration.ZERO : offset);
+  }
+
+  /** Resets the clock to the system time. */
+  public void reset() {
+    control.reset();
+  }
+
+  private void awaitDueTimersTriggered(final Instant time) {
+    // a timer that was created before the clock moved may not be readable yet
+    control.awaitRecords();
+
+    Awaitility.await("timers that are due at %s are triggered".formatted(time))
+        .atMost(TIMER_TIMEOUT)
+        .pollDelay(Duration.ZERO)
+        .pollInterval(Duration.ofMillis(50))
+        .until(() -> findDueTimer(time).isEmpty());
+  }
+
+  private Optional<Long> findDueTimer(final Instant time) {
+    return findPendingTimers().entrySet().stream()
+        .filter(timer -> !timer.getValue().isAfter(time))
+        .map(Map.Entry::getKey)
+        .findFirst();
+  }
+
+  /** Returns the due dates of the timers that are created, but not triggered or canceled yet. */
+  private Map<Long, Instant> findPendingTimers() {
+    final Map<Long, Instant> pendingTimers = new HashMap<>();
+
+    for (final Record<?> record : control.getTimerRecords()) {
+      if (record.getIntent() == TimerIntent.CREATED) {
+        final TimerRecordValue timer = (TimerRecordValue) record.getValue();
+        pendingTimers.put(record.getKey(), Instant.ofEpochMilli(timer.getDueDate()));
+      } else {
+        pendingTimers.remove(record.getKey());
+      }
+    }
+    return pendingTimers;
+  }
+
+  /** Moves the clock of a backend, and reads its timers. */
+  private interface Control {
+
+    Instant getCurrentTime();
+
+    Instant add(Duration offset);
+
+    Instant pin(Instant time);
+
+    void reset();
+
+    /** Waits until the records that were written so far are readable. */
+    void awaitRecords();
+
+    /** Returns the timer events in the order of the log. */
+    Iterable<Record<?>> getTimerRecords();
+  }
+
+  private static final class ContainerControl implements Control {
+
+    private final CamundaTestContext context;
+    private final HttpClient httpClient;
+
+    private ContainerControl(final CamundaTestContext context, final HttpClient httpClient) {
+      this.context = context;
+      this.httpClient = httpClient;
+    }
+
+    @Override
+    public Instant getCurrentTime() {
+      return readTime(send(request("").GET()));
+    }
+
+    @Override
+    public Instant add(final Duration offset) {
+      return readTime(
+          send(
+              request("/add")
+                  .header("Content-Type", "application/json")
+                  .POST(
+                      HttpRequest.BodyPublishers.ofString(
+                          "{\"offsetMilli\": %d}".formatted(offset.toMillis())))));
+    }
+
+    @Override
+    public Instant pin(final Instant time) {
+      return readTime(
+          send(
+              request("/pin")
+                  .header("Content-Type", "application/json")
+                  .POST(
+                      HttpRequest.BodyPublishers.ofString(
+                          "{\"epochMilli\": %d}".formatted(time.toEpochMilli())))));
+    }
+
+    @Override
+    public void reset() {
+      final HttpResponse<String> response = sendRequest(request("").DELETE());
+      if (response.statusCode() != 200) {
+        LOGGER.warn("Failed to reset the clock: {} {}", response.statusCode(), response.body());
+      }
+    }
+
+    @Override
+    public void awaitRecords() {
+      context.getRecordSource().awaitExported(context.getZeebeClient());
+    }
+
+    @Override
+    public Iterable<Record<?>> getTimerRecords() {
+      return context.getRecordSource().getRecords(ValueType.TIMER);
+    }
+
+    private HttpRequest.Builder request(final String path) {
+      final var zeebeContainer = context.getZeebeContainer();
+      final String zeebeManagementEndpoint =
+          "http://" + zeebeContainer.getHost() + ":" + zeebeContainer.getMappedPort(9600);
+
+      return HttpRequest.newBuilder()
+          .uri(URI.create(zeebeManagementEndpoint + "/actuator/clock" + path));
+    }
+
+    private String send(final HttpRequest.Builder request) {
+      final HttpResponse<String> response = sendRequest(request);
+      if (response.statusCode() >= 400) {
+        throw new IllegalStateException(
+            "Request to '%s' failed with status %d: %s"
+                .formatted(response.uri(), response.statusCode(), response.body()));
+      }
+      return response.body();
+    }
+
+    private HttpResponse<String> sendRequest(final HttpRequest.Builder request) {
+      try {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+
+    private static Instant readTime(final String json) {
+      try {
+        return Instant.ofEpochMilli(OBJECT_MAPPER.readTree(json).path("epochMilli").asLong());
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  private static final class EmbeddedEngineControl implements Control {
+
+    private final EmbeddedZeebeEngine engine;
+
+    private EmbeddedEngineControl(final EmbeddedZeebeEngine engine) {
+      this.engine = engine;
+    }
+
+    @Override
+    public Instant getCurrentTime() {
+      return engine.getCurrentTime();
+    }
+
+    @Override
+    public Instant add(final Duration offset) {
+      return engine.increaseTime(offset);
+    }
+
+    @Override
+    public Instant pin(final Instant time) {
+      throw new IllegalStateException(
+          "The clock of the embedded engine can't be pinned, advance it instead");
+    }
+
+    @Override
+    public void reset() {
+      // the engine is replaced on a reset, the new engine starts with the system time
+    }
+
+    @Override
+    public void awaitRecords() {
+      // the records of the engine are readable as soon as they are written
+    }
+
+    @Override
+    public Iterable<Record<?>> getTimerRecords() {
+      final List<Record<?>> timerRecords = new ArrayList<>();
+      for (final Record<?> record : engine.getRecords()) {
+        if (record.getValueType() == ValueType.TIMER
+            && record.getRecordType() == RecordType.EVENT) {
+          timerRecords.add(record);
+        }
+      }
+      return timerRecords;
+    }
+  }
+}